@@ -0,0 +1,118 @@
+package org.chip8_sim.CPU;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Decoding a stream of instruction words with the nested switch vs the precomputed table.
+// The words are random, so the switch branches can't be learned by the branch predictor.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecodeBenchmark {
+    private static final int WORDS = 4096;
+
+    private final char[] instructions = new char[WORDS];
+    private Chip chip;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(8);
+        for (int i = 0; i < WORDS; i++) {
+            instructions[i] = (char) random.nextInt(0x10000);
+        }
+        chip = new Chip();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void decodeSwitch(Blackhole blackhole) {
+        for (char instruction : instructions) {
+            blackhole.consume(DecodeTable.decode(instruction));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void decodeTable(Blackhole blackhole) {
+        for (char instruction : instructions) {
+            blackhole.consume(DecodeTable.lookup(instruction));
+        }
+    }
+
+    // Decode + execute the way every cycle used to go: the nested switch decoder, then a switch over the type
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void executeSwitch() {
+        for (char instruction : instructions) {
+            if (isSafe(instruction)) executeSwitch(chip, instruction);
+        }
+    }
+
+    // Decode + execute the way emulationCycle does now, one lookup in the dispatch table
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void executeDispatch() {
+        for (char instruction : instructions) {
+            if (isSafe(instruction)) {
+                Instruction handler = Chip.DISPATCH[instruction];
+                if (handler != null) handler.execute(chip, instruction);
+            }
+        }
+    }
+
+    // Copy of the executor from before the dispatch table, kept as the baseline
+    private static void executeSwitch(Chip chip, char instruction) {
+        switch (DecodeTable.decode(instruction)) {
+            case OP_1nnn -> chip.OP_1nnn(instruction);
+            case OP_2nnn -> chip.OP_2nnn(instruction);
+            case OP_3xkk -> chip.OP_3xkk(instruction);
+            case OP_4xkk -> chip.OP_4xkk(instruction);
+            case OP_5xy0 -> chip.OP_5xy0(instruction);
+            case OP_6xkk -> chip.OP_6xkk(instruction);
+            case OP_7xkk -> chip.OP_7xkk(instruction);
+            case OP_9xy0 -> chip.OP_9xy0(instruction);
+            case OP_Annn -> chip.OP_Annn(instruction);
+            case OP_Bnnn -> chip.OP_Bnnn(instruction);
+            case OP_Cxkk -> chip.OP_Cxkk(instruction);
+            case OP_Dxyn -> chip.OP_Dxyn(instruction);
+            case OP_8xy0 -> chip.OP_8xy0(instruction);
+            case OP_8xy1 -> chip.OP_8xy1(instruction);
+            case OP_8xy2 -> chip.OP_8xy2(instruction);
+            case OP_8xy3 -> chip.OP_8xy3(instruction);
+            case OP_8xy4 -> chip.OP_8xy4(instruction);
+            case OP_8xy5 -> chip.OP_8xy5(instruction);
+            case OP_8xy6 -> chip.OP_8xy6(instruction);
+            case OP_8xy7 -> chip.OP_8xy7(instruction);
+            case OP_8xyE -> chip.OP_8xyE(instruction);
+            case OP_00E0 -> chip.OP_00E0();
+            case OP_00EE -> chip.OP_00EE();
+            case OP_ExA1 -> chip.OP_ExA1(instruction);
+            case OP_Ex9E -> chip.OP_Ex9E(instruction);
+            case OP_Fx07 -> chip.OP_Fx07(instruction);
+            case OP_Fx0A -> chip.OP_Fx0A(instruction);
+            case OP_Fx15 -> chip.OP_Fx15(instruction);
+            case OP_Fx18 -> chip.OP_Fx18(instruction);
+            case OP_Fx1E -> chip.OP_Fx1E(instruction);
+            case OP_Fx29 -> chip.OP_Fx29(instruction);
+            case OP_Fx33 -> chip.OP_Fx33(instruction);
+            case OP_Fx55 -> chip.OP_Fx55(instruction);
+            case OP_Fx65 -> chip.OP_Fx65(instruction);
+            case UNSUPPORTED -> {
+            }
+        }
+    }
+
+    // Leave out the words that touch the stack, memory, the display or block on input
+    private static boolean isSafe(char instruction) {
+        return switch (instruction & 0xF000) {
+            case 0x3000, 0x4000, 0x5000, 0x6000, 0x7000, 0x8000, 0x9000, 0xA000 -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package org.chip8_sim.CPU;
+
+import org.chip8_sim.Keyboard.InputReplay;
+import org.chip8_sim.Keyboard.InputScript;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// Same as RomBenchmark but with scripted input, so the games leave their title screens
+// and the benchmark covers real gameplay paths. The score is instructions per second.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameplayBenchmark {
+    static final int BUDGET = 100_000;
+
+    @Param({"Tetris.ch8", "Space_Invaders.ch8"})
+    public String rom;
+
+    private RomImage image;
+    private InputScript script;
+    private Chip chip;
+
+    @Setup(Level.Trial)
+    public void loadRom() throws Exception {
+        URL res = GameplayBenchmark.class.getClassLoader().getResource(rom);
+        if (res == null) throw new IllegalStateException("ROM " + rom + " is not on the classpath");
+        image = RomCache.getShared().load(Paths.get(res.toURI()));
+        script = InputScript.parse(gameplay(), Chip.DEFAULT_CYCLES_PER_TIMER_TICK);
+    }
+
+    @Setup(Level.Invocation)
+    public void boot() {
+        chip = new Chip();
+        chip.setRandomSource(new XorShiftRandom(1));
+        chip.getMemory().loadROM(image);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BUDGET)
+    public ExecutionReport play() {
+        return new InputReplay(chip, script).run(BUDGET);
+    }
+
+    // Start the game with 5, then keep tapping left, right and rotate/fire
+    private static String gameplay() {
+        StringBuilder script = new StringBuilder("frame 20 down 5\nframe 24 up 5\n");
+        char[] keys = {'4', '6', '5'};
+        for (int frame = 40, i = 0; frame < BUDGET / Chip.DEFAULT_CYCLES_PER_TIMER_TICK; frame += 12, i++) {
+            char key = keys[i % keys.length];
+            script.append("frame ").append(frame).append(" down ").append(key).append('\n');
+            script.append("frame ").append(frame + 6).append(" up ").append(key).append('\n');
+        }
+        return script.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package org.chip8_sim.CPU;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// Steps many machines on one ROM for a frame's worth of instructions, as separate Chips and as one
+// LockstepEngine, the score is instructions per second over all machines
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LockstepBenchmark {
+    static final int MACHINES = 256;
+    static final int CYCLES = 700;
+
+    @Param({"Space_Invaders.ch8", "test_opcode.ch8"})
+    public String rom;
+
+    private Chip[] chips;
+    private LockstepEngine engine;
+
+    @Setup(Level.Trial)
+    public void boot() throws Exception {
+        URL res = LockstepBenchmark.class.getClassLoader().getResource(rom);
+        if (res == null) throw new IllegalStateException("ROM " + rom + " is not on the classpath");
+        byte[] bytes = Files.readAllBytes(Paths.get(res.toURI()));
+
+        chips = new Chip[MACHINES];
+        engine = new LockstepEngine(MACHINES);
+        engine.loadROM(bytes);
+        for (int m = 0; m < MACHINES; m++) {
+            chips[m] = new Chip();
+            chips[m].setRandomSource(new XorShiftRandom(m));
+            chips[m].getMemory().loadROM(bytes);
+            engine.setSeed(m, m);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MACHINES * CYCLES)
+    public void chips() {
+        for (Chip chip : chips) chip.runUncapped(CYCLES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MACHINES * CYCLES)
+    public void lockstep() {
+        engine.step(CYCLES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MACHINES * CYCLES)
+    public void lockstepParallel() {
+        engine.stepParallel(CYCLES);
+    }
+}
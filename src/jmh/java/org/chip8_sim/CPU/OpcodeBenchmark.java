@@ -0,0 +1,52 @@
+package org.chip8_sim.CPU;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Execution cost of each opcode family, looked up in Chip.DISPATCH and executed like a normal cycle
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OpcodeBenchmark {
+    @Param({"JUMP", "CALL_RETURN", "SKIP", "LOAD", "ALU", "INDEX", "RANDOM", "DRAW", "CLEAR", "KEYS", "TIMERS", "BCD", "STORE_LOAD"})
+    public String family;
+
+    private Chip chip;
+    private char[] instructions;
+
+    @Setup
+    public void setUp() {
+        chip = new Chip();
+        instructions = switch (family) {
+            case "JUMP" -> new char[]{0x1200, 0xB204};
+            case "CALL_RETURN" -> new char[]{0x2300, 0x00EE};
+            case "SKIP" -> new char[]{0x3012, 0x4012, 0x5010, 0x9010};
+            case "LOAD" -> new char[]{0x6012, 0x7001, 0x8010};
+            case "ALU" -> new char[]{0x8011, 0x8012, 0x8013, 0x8014, 0x8015, 0x8016, 0x8017, 0x801E};
+            case "INDEX" -> new char[]{0xA300, 0xF01E, 0xF029};
+            case "RANDOM" -> new char[]{0xC0FF};
+            case "DRAW" -> new char[]{0xA000, 0xD015};
+            case "CLEAR" -> new char[]{0x00E0};
+            case "KEYS" -> new char[]{0xE09E, 0xE0A1};
+            case "TIMERS" -> new char[]{0xF015, 0xF018, 0xF007};
+            case "BCD" -> new char[]{0xA300, 0xF033};
+            case "STORE_LOAD" -> new char[]{0xA300, 0xFF55, 0xFF65};
+            default -> throw new IllegalArgumentException("Unknown opcode family " + family);
+        };
+        // Give the registers something to work with
+        for (int i = 0; i < 16; i++) {
+            chip.getRegisters()[i] = (char) (i * 17);
+        }
+    }
+
+    @Benchmark
+    public void execute() {
+        for (char instruction : instructions) {
+            Chip.DISPATCH[instruction].execute(chip, instruction);
+        }
+    }
+}
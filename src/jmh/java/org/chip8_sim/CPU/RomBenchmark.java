@@ -0,0 +1,48 @@
+package org.chip8_sim.CPU;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// Runs the bundled ROMs headless for a fixed instruction budget, the score is instructions per second
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RomBenchmark {
+    static final int BUDGET = 100_000;
+
+    @Param({"Tetris.ch8", "Space_Invaders.ch8", "test_opcode.ch8"})
+    public String rom;
+
+    // Interpreter against compiled blocks, the compiled code is shared between invocations like it is between chips
+    @Param({"false", "true"})
+    public boolean jit;
+
+    private String romPath;
+    private Chip chip;
+
+    @Setup(Level.Trial)
+    public void findRom() throws Exception {
+        URL res = RomBenchmark.class.getClassLoader().getResource(rom);
+        if (res == null) throw new IllegalStateException("ROM " + rom + " is not on the classpath");
+        romPath = Paths.get(res.toURI()).toFile().getAbsolutePath();
+    }
+
+    @Setup(Level.Invocation)
+    public void boot() throws Exception {
+        chip = new Chip();
+        chip.getMemory().loadROM(romPath);
+        chip.setJitEnabled(jit);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BUDGET)
+    public ExecutionReport runBudget() {
+        return chip.runUncapped(BUDGET);
+    }
+}
@@ -0,0 +1,42 @@
+package org.chip8_sim.Display;
+
+import org.chip8_sim.CPU.Memory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of drawing into the headless framebuffer, the work behind every Dxyn
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameBufferBenchmark {
+    private final FrameBuffer frameBuffer = new FrameBuffer();
+    private final Memory memory = new Memory();
+    private final char[] sprite = {0xf0, 0x90, 0x90, 0x90, 0xf0};
+    private int x = 0;
+    private int y = 0;
+
+    @Benchmark
+    public boolean drawSprite() {
+        // Walk the sprite over the screen so both the aligned and the wrapping cases are hit
+        x = (x + 7) & 63;
+        y = (y + 3) & 15;
+        return frameBuffer.drawSprite(new Coordinate((char) x, (char) y), sprite);
+    }
+
+    @Benchmark
+    public boolean drawSpriteFromMemory() {
+        // Same sprite, read straight from the font area like Dxyn does
+        x = (x + 7) & 63;
+        y = (y + 3) & 15;
+        return frameBuffer.drawSprite(x, y, memory, 0, 5);
+    }
+
+    @Benchmark
+    public void clearDisplay() {
+        frameBuffer.clearDisplay();
+    }
+}
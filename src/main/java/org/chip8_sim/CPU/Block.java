@@ -0,0 +1,30 @@
+package org.chip8_sim.CPU;
+
+// One compiled block and what the run loop needs to know before entering it
+final class Block {
+    final int start;           // Address of the first instruction
+    final int length;          // Instructions executed every time the block runs
+    final boolean readsTimers; // Contains Fx07, Fx15 or Fx18, so it can't run across a timer tick
+    final CompiledBlock code;
+    final char[] words;        // The instructions the block was compiled from
+
+    Block(int start, char[] words, boolean readsTimers, CompiledBlock code) {
+        this.start = start;
+        this.length = words.length;
+        this.words = words;
+        this.readsTimers = readsTimers;
+        this.code = code;
+    }
+
+    int end() {
+        return start + length * 2;
+    }
+
+    // Whether memory still holds the code this block was compiled from
+    boolean matches(Memory memory) {
+        for (int i = 0; i < words.length; i++) {
+            if (memory.readInstruction(start + i * 2) != words[i]) return false;
+        }
+        return true;
+    }
+}
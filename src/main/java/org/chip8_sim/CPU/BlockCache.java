@@ -0,0 +1,82 @@
+package org.chip8_sim.CPU;
+
+// Compiled blocks of one chip by start address. An address gets compiled once the run loop has
+// landed on it often enough. Every entry remembers the generations of the memory pages its code
+// sits in, so writes from anywhere (Fx33, Fx55, ROM loads, restored states) are noticed the next
+// time the block is looked up, and only the blocks on the written pages are checked again.
+final class BlockCache {
+    static final int COMPILE_THRESHOLD = 8;
+    // Code rewritten this often is left to the interpreter instead of being recompiled every time
+    static final int MAX_INVALIDATIONS = 4;
+    // Addresses with nothing worth compiling are looked at again when their first two instructions change
+    private static final int NOT_COMPILABLE_SPAN = 4;
+
+    private static final Block NOT_COMPILABLE = new Block(0, new char[0], false, chip -> { });
+
+    private final Memory memory;
+    private final Block[] blocks;
+    private final long[] stamps;
+    private final byte[] hits;
+    private final byte[] invalidations;
+    private int compiled = 0;
+
+    BlockCache(Memory memory) {
+        this.memory = memory;
+        this.blocks = new Block[memory.size()];
+        this.stamps = new long[memory.size()];
+        this.hits = new byte[memory.size()];
+        this.invalidations = new byte[memory.size()];
+    }
+
+    // The block starting at pc, or null when the interpreter should take the next instruction
+    Block find(int pc) {
+        if (pc + 1 >= blocks.length) return null;
+
+        Block block = blocks[pc];
+        if (block == NOT_COMPILABLE) {
+            if (stamp(pc, pc + NOT_COMPILABLE_SPAN) == stamps[pc]) return null;
+            blocks[pc] = null;
+            hits[pc] = 0;
+        } else if (block != null) {
+            long stamp = stamp(pc, block.end());
+            if (stamp == stamps[pc]) return block;
+
+            // Something on the same pages was written, often data next to the code rather than the code itself
+            if (block.matches(memory)) {
+                stamps[pc] = stamp;
+                return block;
+            }
+            blocks[pc] = null;
+            hits[pc] = 0;
+            invalidations[pc]++;
+            compiled--;
+        }
+
+        if (++hits[pc] < COMPILE_THRESHOLD) return null;
+
+        block = invalidations[pc] < MAX_INVALIDATIONS ? BlockCompiler.compile(memory, pc) : null;
+        if (block == null) {
+            blocks[pc] = NOT_COMPILABLE;
+            stamps[pc] = stamp(pc, pc + NOT_COMPILABLE_SPAN);
+            return null;
+        }
+        blocks[pc] = block;
+        stamps[pc] = stamp(pc, block.end());
+        compiled++;
+        return block;
+    }
+
+    int size() {
+        return compiled;
+    }
+
+    // Generations only ever go up, so the sum over the pages of [from, to) changes with any write to them
+    private long stamp(int from, int to) {
+        int last = Math.min(to, memory.size()) - 1;
+        long stamp = 0;
+        for (int page = Memory.pageOf(from); page <= Memory.pageOf(last); page++) {
+            stamp += memory.getPageGeneration(page);
+        }
+        return stamp;
+    }
+}
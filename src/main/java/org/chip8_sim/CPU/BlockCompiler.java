@@ -0,0 +1,165 @@
+package org.chip8_sim.CPU;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.chip8_sim.CPU.ClassFileWriter.*;
+
+// Translates a run of instructions into the bytecode of a hidden class, so the JVM can compile the
+// whole block instead of dispatching one handler at a time. Register moves, immediates and the
+// logic ops are emitted inline, everything else calls the same OP_ handler the interpreter uses.
+final class BlockCompiler {
+    static final int MAX_BLOCK_LENGTH = 64;
+
+    // Same code at the same address compiles to the same class, so chips running the same ROM share them.
+    // Softly held, so the GC can drop blocks no chip uses any more under memory pressure and their
+    // hidden classes can be unloaded. Cleared entries are removed on the next compile.
+    private static final int MAX_SHARED_BLOCKS = 16 * 1024;
+    private static final Map<String, SharedBlock> SHARED = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Block> CLEARED = new ReferenceQueue<>();
+
+    private static final String CHIP = "org/chip8_sim/CPU/Chip";
+    private static final String BLOCK_INTERFACE = "org/chip8_sim/CPU/CompiledBlock";
+    private static final String BLOCK_CLASS = "org/chip8_sim/CPU/CompiledBlock$Generated";
+
+    private BlockCompiler() {
+    }
+
+    // Returns null when there is nothing worth compiling at start
+    static Block compile(Memory memory, int start) {
+        char[] words = new char[MAX_BLOCK_LENGTH];
+        int length = 0;
+        boolean readsTimers = false;
+
+        for (int address = start; length < MAX_BLOCK_LENGTH && address + 1 < memory.size(); address += 2) {
+            char instruction = memory.readInstruction(address);
+            OpCodeTypes type = DecodeTable.lookup(instruction);
+            // Drawing and waiting on a key stay with the interpreter, the block ends right before them
+            if (type == OpCodeTypes.UNSUPPORTED || type == OpCodeTypes.OP_Dxyn || type == OpCodeTypes.OP_Fx0A) break;
+
+            words[length++] = instruction;
+            if (type == OpCodeTypes.OP_Fx07 || type == OpCodeTypes.OP_Fx15 || type == OpCodeTypes.OP_Fx18) {
+                readsTimers = true;
+            }
+            if (endsBlock(type)) break;
+        }
+        if (length < 2) return null;
+
+        expungeCleared();
+        String key = start + ":" + new String(words, 0, length);
+        SharedBlock shared = SHARED.get(key);
+        Block block = shared == null ? null : shared.get();
+        if (block != null) return block;
+
+        block = new Block(start, Arrays.copyOf(words, length), readsTimers, define(emit(start, words, length)));
+        if (shared != null) SHARED.replace(key, shared, new SharedBlock(key, block));
+        else if (SHARED.size() < MAX_SHARED_BLOCKS) SHARED.putIfAbsent(key, new SharedBlock(key, block));
+        return block;
+    }
+
+    private static void expungeCleared() {
+        SharedBlock cleared;
+        while ((cleared = (SharedBlock) CLEARED.poll()) != null) {
+            SHARED.remove(cleared.key, cleared);
+        }
+    }
+
+    private static final class SharedBlock extends SoftReference<Block> {
+        final String key;
+
+        SharedBlock(String key, Block block) {
+            super(block, CLEARED);
+            this.key = key;
+        }
+    }
+
+    // Anything that moves the pc, and the writes to memory since they may patch the code after them
+    private static boolean endsBlock(OpCodeTypes type) {
+        return switch (type) {
+            case OP_1nnn, OP_2nnn, OP_00EE, OP_Bnnn,
+                 OP_3xkk, OP_4xkk, OP_5xy0, OP_9xy0,
+                 OP_Ex9E, OP_ExA1,
+                 OP_Fx33, OP_Fx55 -> true;
+            default -> false;
+        };
+    }
+
+    private static byte[] emit(int start, char[] words, int length) {
+        ClassFileWriter writer = new ClassFileWriter(BLOCK_CLASS, "java/lang/Object", BLOCK_INTERFACE);
+
+        Code constructor = new Code(1, 1)
+                .op(ALOAD_0)
+                .op(INVOKESPECIAL, writer.methodRef("java/lang/Object", "<init>", "()V"))
+                .op(RETURN);
+        writer.addMethod("<init>", "()V", constructor);
+
+        int registersField = writer.fieldRef(CHIP, "registers", "[C");
+        int indexField = writer.fieldRef(CHIP, "index", "C");
+        int pcField = writer.fieldRef(CHIP, "pc", "C");
+
+        // Local 1 is the chip, local 2 caches its registers
+        Code code = new Code(6, 3)
+                .op(ALOAD_1)
+                .op(GETFIELD, registersField)
+                .op(ASTORE_2);
+
+        for (int i = 0; i < length; i++) {
+            char instruction = words[i];
+            OpCodeTypes type = DecodeTable.lookup(instruction);
+            int x = (instruction & 0x0F00) >> 8;
+            int y = (instruction & 0x00F0) >> 4;
+            int kk = instruction & 0x00FF;
+
+            switch (type) {
+                case OP_6xkk -> code.op(ALOAD_2).push(writer, x).push(writer, kk).op(CASTORE);
+                case OP_7xkk -> code.op(ALOAD_2).push(writer, x).op(DUP2).op(CALOAD)
+                        .push(writer, kk).op(IADD).op(CASTORE);
+                case OP_8xy0 -> code.op(ALOAD_2).push(writer, x).op(ALOAD_2).push(writer, y).op(CALOAD).op(CASTORE);
+                case OP_8xy1, OP_8xy2, OP_8xy3 -> code.op(ALOAD_2).push(writer, x).op(DUP2).op(CALOAD)
+                        .op(ALOAD_2).push(writer, y).op(CALOAD)
+                        .op(type == OpCodeTypes.OP_8xy1 ? IOR : type == OpCodeTypes.OP_8xy2 ? IAND : IXOR)
+                        .op(CASTORE);
+                case OP_Annn -> code.op(ALOAD_1).push(writer, instruction & 0x0FFF).op(PUTFIELD, indexField);
+                default -> {
+                    // The last instruction sees the pc the interpreter would have after fetching it
+                    if (i == length - 1 && endsBlock(type)) {
+                        code.op(ALOAD_1).push(writer, start + length * 2).op(PUTFIELD, pcField);
+                    }
+                    code.op(ALOAD_1);
+                    if (type == OpCodeTypes.OP_00E0 || type == OpCodeTypes.OP_00EE) {
+                        code.op(INVOKEVIRTUAL, writer.methodRef(CHIP, type.name(), "()V"));
+                    } else {
+                        code.push(writer, instruction)
+                                .op(INVOKEVIRTUAL, writer.methodRef(CHIP, type.name(), "(C)V"));
+                    }
+                }
+            }
+        }
+
+        // A block cut short by its length or by an instruction left to the interpreter falls through
+        if (!endsBlock(DecodeTable.lookup(words[length - 1]))) {
+            code.op(ALOAD_1).push(writer, start + length * 2).op(PUTFIELD, pcField);
+        }
+        code.op(RETURN);
+        writer.addMethod("execute", "(L" + CHIP + ";)V", code);
+
+        return writer.toByteArray();
+    }
+
+    private static CompiledBlock define(byte[] classFile) {
+        try {
+            // Hidden classes aren't strongly tied to the loader, once the block is unreachable (no chip's cache
+            // and the soft SHARED entry cleared) the class gets unloaded
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            return (CompiledBlock) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not define compiled block", e);
+        }
+    }
+}
@@ -2,198 +2,328 @@ package org.chip8_sim.CPU;
 
 import org.chip8_sim.Display.*;
 import org.chip8_sim.Keyboard.Keypad;
-
-import java.util.Random;
+import org.chip8_sim.Metrics.Metrics;
 
 public class Chip {
+    // Roughly 400 instructions per second against the 60Hz timers
+    public static final int DEFAULT_CYCLES_PER_TIMER_TICK = 7;
+
+    // Handlers indexed by OpCodeTypes ordinal, and by raw instruction word (null for unsupported words)
+    private static final Instruction[] HANDLERS = buildHandlers();
+    static final Instruction[] DISPATCH = buildDispatchTable();
+
     private final Stack stack = new Stack();
     private final Memory memory = new Memory();
-    private final Keypad keypad = new Keypad();
-    private final Screen screen = new Screen(keypad);
+    private final Keypad keypad;
+    private final Display display;
     private final OpCode opCode = new OpCode();
-    private final char[] registers = new char[16]; // use char for most implementations as it is unsigned
-    private char pc = Addresses.START_ADDRESS.address;
-    private char index = 0;
+    // Package-private so the blocks BlockCompiler generates can work on them directly
+    final char[] registers = new char[16]; // use char for most implementations as it is unsigned
+    char pc = Addresses.START_ADDRESS.address;
+    char index = 0;
     private char delayTimer = 0;
     private char soundTimer = 0; // can be byte but is char for convenience
+    private RandomSource random = new XorShiftRandom();
+    private int keyWaitRegister = -1; // register Fx0A stores the key in, -1 when not waiting
+    private long cycleCount = 0; // cycles run by runUncapped, the clock input scripts are timed against
+    private int cyclesUntilTimerTick = DEFAULT_CYCLES_PER_TIMER_TICK;
+    private BlockCache blockCache = null; // null while the block compiler is off
+    private TraceRecorder trace = null; // null while not tracing
+    private ExecutionProfile profile = null; // null while not profiling
+    private Metrics metrics = Metrics.NONE;
+    private final char[] tracedRegisters = new char[16]; // registers before the traced instruction
+
+    public Chip() {
+        // Headless by default, nothing here needs a window
+        this(new FrameBuffer(), new Keypad());
+    }
+
+    public Chip(Display display, Keypad keypad) {
+        this.display = display;
+        this.keypad = keypad;
+    }
 
     public void run() {
-        int tickFrequency = 400;
-        int soundFrequency = 60;
-        long lastExecutionTime = System.currentTimeMillis();
-        long lastTimerUpdate = lastExecutionTime;
-        boolean skipTimer = false;
-
-        while(true) {
-            if(skipTimer || System.currentTimeMillis() - lastExecutionTime >= 1000/tickFrequency) {
-                lastExecutionTime = System.currentTimeMillis();
-                if(!emulationCycle()) break;
-                if(System.currentTimeMillis() - lastExecutionTime >= 1000/ tickFrequency) {
-                    skipTimer = true;
-                    System.out.println("Skipping next instruction");
-                } else skipTimer = false;
+        // Real time at the default clock until an unsupported instruction, see FrameScheduler
+        new FrameScheduler(this).run();
+    }
+
+    // One frame for the scheduler: the batch runs back to back, the timers tick once right after it
+    // and the screen is handed to the renderer
+    public ExecutionReport runFrame(int instructions) {
+        ExecutionReport report;
+        if (instructions <= 0) {
+            updateTimers();
+            report = new ExecutionReport(0, 1, 0, false);
+        } else {
+            cyclesUntilTimerTick = instructions;
+            report = runUncapped(instructions, instructions);
+        }
+        display.publishFrame();
+        return report;
+    }
+
+    public ExecutionReport runUncapped(long instructionBudget) {
+        return runUncapped(instructionBudget, DEFAULT_CYCLES_PER_TIMER_TICK);
+    }
+
+    public ExecutionReport runUncapped(long instructionBudget, int cyclesPerTimerTick) {
+        // Runs as fast as the host allows, the timers are driven by the instruction count instead
+        // of the wall clock, so the same ROM always ends up in the same state for the same budget
+        if (cyclesPerTimerTick <= 0) throw new IllegalArgumentException("cyclesPerTimerTick must be positive");
+
+        long executed = 0;
+        long timerTicks = 0;
+        boolean halted = false;
+        // The position within the current timer tick carries over between calls, so running
+        // a budget in several slices ends in the same state as running it in one go
+        int untilTimerTick = Math.min(cyclesUntilTimerTick, cyclesPerTimerTick);
+        long startTime = System.nanoTime();
+
+        while (executed < instructionBudget) {
+            // Hot code runs a compiled block at a time. A block that reads or sets the timers has to
+            // finish before the next tick, the others can apply the ticks they ran past afterwards
+            if (blockCache != null && trace == null && keyWaitRegister < 0) {
+                Block block = blockCache.find(pc);
+                if (block != null && block.length <= instructionBudget - executed
+                        && (!block.readsTimers || block.length <= untilTimerTick)) {
+                    block.code.execute(this);
+                    if (profile != null) profile.countBlock(block);
+                    executed += block.length;
+                    untilTimerTick -= block.length;
+                    while (untilTimerTick <= 0) {
+                        untilTimerTick += cyclesPerTimerTick;
+                        updateTimers();
+                        timerTicks++;
+                    }
+                    continue;
+                }
             }
 
-            // Update timers
-            if(System.currentTimeMillis() - lastTimerUpdate >= soundFrequency) {
-                lastTimerUpdate = System.currentTimeMillis();
+            if (!tracedCycle()) {
+                halted = true;
+                break;
+            }
+            executed++;
 
-                if(delayTimer > 0) --delayTimer;
-                if(soundTimer > 0) --soundTimer;
+            if (--untilTimerTick == 0) {
+                untilTimerTick = cyclesPerTimerTick;
+                updateTimers();
+                timerTicks++;
             }
         }
+        cyclesUntilTimerTick = untilTimerTick;
+        cycleCount += executed;
+        metrics.cyclesExecuted(executed);
+
+        return new ExecutionReport(executed, timerTicks, System.nanoTime() - startTime, halted);
+    }
+
+    // Captures the whole machine, see SaveState for the format
+    public byte[] saveState() {
+        return SaveState.save(this);
+    }
+
+    public void restoreState(byte[] state) {
+        SaveState.restore(this, state);
+    }
+
+    // Compiles hot code into JVM classes for runUncapped, off by default
+    public void setJitEnabled(boolean enabled) {
+        if (!enabled) blockCache = null;
+        else if (blockCache == null) blockCache = new BlockCache(memory);
+    }
+
+    public boolean isJitEnabled() {
+        return blockCache != null;
     }
 
-    private boolean emulationCycle() {
+    // Records every executed instruction while set, compiled blocks are skipped so nothing is missed
+    public void setTraceRecorder(TraceRecorder trace) {
+        this.trace = trace;
+    }
+
+    public TraceRecorder getTraceRecorder() {
+        return trace;
+    }
+
+    // Receives counters from the run loops instead of them printing, Metrics.NONE by default
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics == null ? Metrics.NONE : metrics;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    // Counts executions per opcode type and address while set
+    public void setExecutionProfile(ExecutionProfile profile) {
+        this.profile = profile;
+    }
+
+    public ExecutionProfile getExecutionProfile() {
+        return profile;
+    }
+
+    private void updateTimers() {
+        if(delayTimer > 0) --delayTimer;
+        if(soundTimer > 0) --soundTimer;
+    }
+
+    // Leaves the trace behind when a handler throws, the catch costs nothing until something does
+    private boolean tracedCycle() {
+        try {
+            return emulationCycle();
+        } catch (RuntimeException e) {
+            if (trace != null) trace.dumpOnFault();
+            throw e;
+        }
+    }
+
+    boolean emulationCycle() {
+        // Waiting on Fx0A, nothing gets fetched until a key is down
+        if(keyWaitRegister >= 0) {
+            char currentKey = keypad.getPressedKey();
+            if(currentKey == Keypad.NO_KEY) return true;
+            registers[keyWaitRegister] = currentKey;
+            keyWaitRegister = -1;
+        }
+
         // Fetch
         char instruction = memory.readInstruction(pc);
+        if(profile != null) profile.count(pc, instruction);
 
         // Increment the pc for the next instruction
         pc += 2;
 
-        // Decode
-        decodeInstruction(instruction);
-        if(opCode.getOpcodeType() == OpCodeTypes.UNSUPPORTED) {
-            System.out.println("OPCODE NOT SUPPORTED: " + opCode.getOpcode());
+        // Decode, every instruction word maps straight to its handler
+        Instruction handler = DISPATCH[instruction];
+        if(handler == null) {
+            decodeInstruction(instruction);
+            metrics.unsupportedOpcode(pc - 2, instruction);
+            if(trace != null) {
+                trace.record((char) (pc - 2), instruction, -1, (char) 0, index);
+                trace.dumpOnFault();
+            }
             return false;
         }
 
         // Execute
-        executeInstruction(opCode);
+        if(trace == null) handler.execute(this, instruction);
+        else executeTraced(handler, instruction);
         return true;
     }
 
+    private void executeTraced(Instruction handler, char instruction) {
+        char address = (char) (pc - 2);
+        System.arraycopy(registers, 0, tracedRegisters, 0, registers.length);
+        handler.execute(this, instruction);
+
+        // The lowest register that changed, VF only when nothing else did
+        int changed = -1;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] != tracedRegisters[i]) {
+                changed = i;
+                break;
+            }
+        }
+        trace.record(address, instruction, changed, changed < 0 ? 0 : registers[changed], index);
+    }
+
     public void decodeInstruction(char instruction) {
         // We have one opCode object that we keep modifying as the instructions change
         // We could use this method to create a new opcode each time with a constructor
         // ex. return new OpCode(instruction, OpCodeTypes);
         // but I think this is better?
         opCode.setOpcode(instruction);
-        opCode.setOpcodeType(decodeInstructionType(instruction));
+        opCode.setOpcodeType(DecodeTable.lookup(instruction));
     }
 
-    private OpCodeTypes decodeInstructionType(char code) {
-        // Checking if it's the 0x00E code so that we can exit early
-        if (code == 0x00E0) {
-            return OpCodeTypes.OP_00E0;
-        }
-        if (code == 0x00EE) {
-            return OpCodeTypes.OP_00EE;
-        }
+    public void executeInstruction(OpCode opcode) {
+        Instruction handler = HANDLERS[opcode.getOpcodeType().ordinal()];
+        if (handler != null) handler.execute(this, opcode.getOpcode());
+    }
 
-        // Using bitwise-AND to determine the OP code for each instruction
-        // Conditions for each code subgroup shown in OpCodeTypes enum
-        return switch (code & 0xF000) {
-            case 0x1000 -> OpCodeTypes.OP_1nnn;
-            case 0x2000 -> OpCodeTypes.OP_2nnn;
-            case 0x3000 -> OpCodeTypes.OP_3xkk;
-            case 0x4000 -> OpCodeTypes.OP_4xkk;
-            case 0x5000 -> OpCodeTypes.OP_5xy0;
-            case 0x6000 -> OpCodeTypes.OP_6xkk;
-            case 0x7000 -> OpCodeTypes.OP_7xkk;
-            case 0x8000 -> switch (code & 0x000F) {
-                case 0x0000 -> OpCodeTypes.OP_8xy0;
-                case 0x0001 -> OpCodeTypes.OP_8xy1;
-                case 0x0002 -> OpCodeTypes.OP_8xy2;
-                case 0x0003 -> OpCodeTypes.OP_8xy3;
-                case 0x0004 -> OpCodeTypes.OP_8xy4;
-                case 0x0005 -> OpCodeTypes.OP_8xy5;
-                case 0x0006 -> OpCodeTypes.OP_8xy6;
-                case 0x0007 -> OpCodeTypes.OP_8xy7;
-                case 0x000E -> OpCodeTypes.OP_8xyE;
-                default -> OpCodeTypes.UNSUPPORTED;
-            };
-            case 0x9000 -> OpCodeTypes.OP_9xy0;
-            case 0xA000 -> OpCodeTypes.OP_Annn;
-            case 0xB000 -> OpCodeTypes.OP_Bnnn;
-            case 0xC000 -> OpCodeTypes.OP_Cxkk;
-            case 0xD000 -> OpCodeTypes.OP_Dxyn;
-            case 0xE000 -> switch (code & 0x00FF) {
-                case 0X009E -> OpCodeTypes.OP_Ex9E;
-                case 0X00A1 -> OpCodeTypes.OP_ExA1;
-                default -> OpCodeTypes.UNSUPPORTED;
-            };
-            case 0xF000 -> switch (code & 0x00FF) {
-                case 0x0007 -> OpCodeTypes.OP_Fx07;
-                case 0x000A -> OpCodeTypes.OP_Fx0A;
-                case 0x0015 -> OpCodeTypes.OP_Fx15;
-                case 0x0018 -> OpCodeTypes.OP_Fx18;
-                case 0X001E -> OpCodeTypes.OP_Fx1E;
-                case 0X0029 -> OpCodeTypes.OP_Fx29;
-                case 0X0033 -> OpCodeTypes.OP_Fx33;
-                case 0X0055 -> OpCodeTypes.OP_Fx55;
-                case 0X0065 -> OpCodeTypes.OP_Fx65;
-                default -> OpCodeTypes.UNSUPPORTED;
-            };
-            default -> OpCodeTypes.UNSUPPORTED;
-        };
+    private static Instruction[] buildHandlers() {
+        OpCodeTypes[] types = OpCodeTypes.values();
+        Instruction[] handlers = new Instruction[types.length];
+        for (OpCodeTypes type : types) {
+            handlers[type.ordinal()] = handlerFor(type);
+        }
+        return handlers;
     }
 
-    public void executeInstruction(OpCode opcode) {
-        char instruction = opcode.getOpcode();
-        OpCodeTypes instructionType = opcode.getOpcodeType();
-
-        switch (instructionType) {
-            case OP_1nnn -> OP_1nnn(instruction);
-            case OP_2nnn -> OP_2nnn(instruction);
-            case OP_3xkk -> OP_3xkk(instruction);
-            case OP_4xkk -> OP_4xkk(instruction);
-            case OP_5xy0 -> OP_5xy0(instruction);
-            case OP_6xkk -> OP_6xkk(instruction);
-            case OP_7xkk -> OP_7xkk(instruction);
-            case OP_9xy0 -> OP_9xy0(instruction);
-            case OP_Annn -> OP_Annn(instruction);
-            case OP_Bnnn -> OP_Bnnn(instruction);
-            case OP_Cxkk -> OP_Cxkk(instruction);
-            case OP_Dxyn -> OP_Dxyn(instruction);
-            case OP_8xy0 -> OP_8xy0(instruction);
-            case OP_8xy1 -> OP_8xy1(instruction);
-            case OP_8xy2 -> OP_8xy2(instruction);
-            case OP_8xy3 -> OP_8xy3(instruction);
-            case OP_8xy4 -> OP_8xy4(instruction);
-            case OP_8xy5 -> OP_8xy5(instruction);
-            case OP_8xy6 -> OP_8xy6(instruction);
-            case OP_8xy7 -> OP_8xy7(instruction);
-            case OP_8xyE -> OP_8xyE(instruction);
-            case OP_00E0 -> OP_00E0();
-            case OP_00EE -> OP_00EE();
-            case OP_ExA1 -> OP_ExA1(instruction);
-            case OP_Ex9E -> OP_Ex9E(instruction);
-            case OP_Fx07 -> OP_Fx07(instruction);
-            case OP_Fx0A -> OP_Fx0A(instruction);
-            case OP_Fx15 -> OP_Fx15(instruction);
-            case OP_Fx18 -> OP_Fx18(instruction);
-            case OP_Fx1E -> OP_Fx1E(instruction);
-            case OP_Fx29 -> OP_Fx29(instruction);
-            case OP_Fx33 -> OP_Fx33(instruction);
-            case OP_Fx55 -> OP_Fx55(instruction);
-            case OP_Fx65 -> OP_Fx65(instruction);
+    private static Instruction[] buildDispatchTable() {
+        Instruction[] dispatch = new Instruction[0x10000];
+        for (int i = 0; i < dispatch.length; i++) {
+            dispatch[i] = HANDLERS[DecodeTable.lookup((char) i).ordinal()];
         }
+        return dispatch;
+    }
+
+    private static Instruction handlerFor(OpCodeTypes type) {
+        return switch (type) {
+            case OP_1nnn -> Chip::OP_1nnn;
+            case OP_2nnn -> Chip::OP_2nnn;
+            case OP_3xkk -> Chip::OP_3xkk;
+            case OP_4xkk -> Chip::OP_4xkk;
+            case OP_5xy0 -> Chip::OP_5xy0;
+            case OP_6xkk -> Chip::OP_6xkk;
+            case OP_7xkk -> Chip::OP_7xkk;
+            case OP_9xy0 -> Chip::OP_9xy0;
+            case OP_Annn -> Chip::OP_Annn;
+            case OP_Bnnn -> Chip::OP_Bnnn;
+            case OP_Cxkk -> Chip::OP_Cxkk;
+            case OP_Dxyn -> Chip::OP_Dxyn;
+            case OP_8xy0 -> Chip::OP_8xy0;
+            case OP_8xy1 -> Chip::OP_8xy1;
+            case OP_8xy2 -> Chip::OP_8xy2;
+            case OP_8xy3 -> Chip::OP_8xy3;
+            case OP_8xy4 -> Chip::OP_8xy4;
+            case OP_8xy5 -> Chip::OP_8xy5;
+            case OP_8xy6 -> Chip::OP_8xy6;
+            case OP_8xy7 -> Chip::OP_8xy7;
+            case OP_8xyE -> Chip::OP_8xyE;
+            case OP_00E0 -> (chip, instruction) -> chip.OP_00E0();
+            case OP_00EE -> (chip, instruction) -> chip.OP_00EE();
+            case OP_ExA1 -> Chip::OP_ExA1;
+            case OP_Ex9E -> Chip::OP_Ex9E;
+            case OP_Fx07 -> Chip::OP_Fx07;
+            case OP_Fx0A -> Chip::OP_Fx0A;
+            case OP_Fx15 -> Chip::OP_Fx15;
+            case OP_Fx18 -> Chip::OP_Fx18;
+            case OP_Fx1E -> Chip::OP_Fx1E;
+            case OP_Fx29 -> Chip::OP_Fx29;
+            case OP_Fx33 -> Chip::OP_Fx33;
+            case OP_Fx55 -> Chip::OP_Fx55;
+            case OP_Fx65 -> Chip::OP_Fx65;
+            case UNSUPPORTED -> null;
+        };
     }
 
-    private void OP_00E0() {
+    void OP_00E0() {
         // This can be called from the switch statement directly but will be put here for clarity
-       screen.clearDisplay();
+       display.clearDisplay();
     }
 
-    private void OP_00EE() {
+    void OP_00EE() {
         // Return from subroutine
         pc = stack.getAddress();
     }
 
-    private void OP_1nnn(char instruction) {
+    void OP_1nnn(char instruction) {
         // Jump to address nnn
         pc = (char) (instruction & 0x0FFF);
     }
 
-    private void OP_2nnn(char instruction) {
+    void OP_2nnn(char instruction) {
         // Call subroutine at nnn
         char address = (char) (instruction & 0x0FFF);
         stack.setAddress(pc);
         pc = address;
     }
 
-    private void OP_3xkk(char instruction) {
+    void OP_3xkk(char instruction) {
         // Skip next instruction if Vx == kk
         char x = (char) ((instruction & 0x0F00) >> 8);
         char kk = (char) (instruction & 0x00FF);
@@ -201,7 +331,7 @@ public class Chip {
         if(registers[x] == kk) pc += 2;
     }
 
-    private void OP_4xkk(char instruction) {
+    void OP_4xkk(char instruction) {
         // Skip next instruction if Vx != kk
         char x = (char) ((instruction & 0x0F00) >> 8);
         char kk = (char) (instruction & 0x00FF);
@@ -209,7 +339,7 @@ public class Chip {
         if(registers[x] != kk) pc += 2;
     }
 
-    private void OP_5xy0(char instruction) {
+    void OP_5xy0(char instruction) {
         // Skip next instruction if Vx == Vy
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
@@ -217,7 +347,7 @@ public class Chip {
         if(registers[Vx] == registers[Vy]) pc+=2;
     }
 
-    private void OP_6xkk(char instruction) {
+    void OP_6xkk(char instruction) {
         // Set Vx = kk
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char kk = (char) (instruction & 0x00FF);
@@ -225,7 +355,7 @@ public class Chip {
         registers[Vx] = kk;
     }
 
-    private void OP_7xkk(char instruction) {
+    void OP_7xkk(char instruction) {
         // Add kk to Vx
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char kk = (char) (instruction & 0x00FF);
@@ -233,7 +363,7 @@ public class Chip {
         registers[Vx] += kk;
     }
 
-    private void OP_8xy0(char instruction) {
+    void OP_8xy0(char instruction) {
         // Set Vx = Vy
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
@@ -241,7 +371,7 @@ public class Chip {
         registers[Vx] = registers[Vy];
     }
 
-    private void OP_8xy1(char instruction) {
+    void OP_8xy1(char instruction) {
         // Set Vx to Vx OR Vy
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
@@ -249,7 +379,7 @@ public class Chip {
         registers[Vx] |= registers[Vy];
     }
 
-    private void OP_8xy2(char instruction) {
+    void OP_8xy2(char instruction) {
         // Set Vx to Vx AND Vy
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
@@ -257,7 +387,7 @@ public class Chip {
         registers[Vx] &= registers[Vy];
     }
 
-    private void OP_8xy3(char instruction) {
+    void OP_8xy3(char instruction) {
         // Set Vx to Vx XOR Vy
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
@@ -266,7 +396,7 @@ public class Chip {
     }
 
     // TODO test different methods to check the sum
-    private void OP_8xy4(char instruction) {
+    void OP_8xy4(char instruction) {
         // Set Add Vy to Vx, set VF to carry
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
@@ -280,7 +410,7 @@ public class Chip {
         registers[Vx] = sum;
     }
 
-    private void OP_8xy5(char instruction) {
+    void OP_8xy5(char instruction) {
         // Sub Vy from Vx, VF = 1 if Vx < Vy, else VF = 0
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
@@ -295,7 +425,7 @@ public class Chip {
         registers[Vx] = result;
     }
 
-    private void OP_8xy6(char instruction) {
+    void OP_8xy6(char instruction) {
         // Divide Vx by 2
         char Vx = (char) ((instruction & 0x0F00) >> 8);
 
@@ -306,7 +436,7 @@ public class Chip {
         registers[Vx] >>= 1;
     }
 
-    private void OP_8xy7(char instruction) {
+    void OP_8xy7(char instruction) {
         // Sub Vx = Vy - Vx, VF = 0 if Vx < Vy, else VF = 1
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
@@ -320,7 +450,7 @@ public class Chip {
         registers[Vx] = result;
     }
 
-    private void OP_8xyE(char instruction) {
+    void OP_8xyE(char instruction) {
         // If MSD of Vx is 1, VF = 0, else VF = 1, then multiply by 2
         char Vx = (char) ((instruction & 0x0F00) >> 8);
 
@@ -331,7 +461,7 @@ public class Chip {
         registers[Vx] = (char) ((registers[Vx] << 1) & 0x00FF);
     }
 
-    private void OP_9xy0(char instruction) {
+    void OP_9xy0(char instruction) {
         // Skip next instruction if Vx != Vy
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
@@ -339,103 +469,89 @@ public class Chip {
         if(registers[Vx] != registers[Vy]) pc+=2;
     }
 
-    private void OP_Annn(char instruction) {
+    void OP_Annn(char instruction) {
         // Set Index to nnn
         index = (char) (instruction & 0x0FFF);
     }
 
-    private void OP_Bnnn(char instruction) {
+    void OP_Bnnn(char instruction) {
         // Jump to location nnn + V0
         char address = (char) (instruction & 0x0FFF);
         pc = (char) (address + registers[0]);
     }
 
-    private void OP_Cxkk(char instruction) {
+    void OP_Cxkk(char instruction) {
         // Set Vx to random byte AND kk
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char b = (char) (instruction & 0x00FF);
 
-        registers[Vx] = (char) (new Random().nextInt(256) & b);
+        registers[Vx] = (char) (random.nextByte() & b);
     }
 
-    private void OP_Dxyn(char instruction) {
+    void OP_Dxyn(char instruction) {
         // Display n-byte sprite starting at memory location I at (Vx, Vy), set VF = collision.
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char Vy = (char) ((instruction & 0x00F0) >> 4);
         char nibble = (char) (instruction & 0x000F);
 
-        Coordinate position = new Coordinate(registers[Vx], registers[Vy]);
-        char[] sprite = new char[nibble];
-        for (int i = 0; i < nibble; i++) {
-            sprite[i] = memory.readByte(i + index);
-        }
-        boolean collision = screen.drawSprite(position, sprite);
+        // The sprite is read straight out of memory, nothing is allocated per draw
+        boolean collision = display.drawSprite(registers[Vx], registers[Vy], memory, index, nibble);
         if (collision) registers[Addresses.VF_REGISTER.address] = 0x1;
         else registers[Addresses.VF_REGISTER.address] = 0x0;
     }
 
-    private void OP_Ex9E(char instruction) {
+    void OP_Ex9E(char instruction) {
         // Skip next instruction if key of value Vx is pressed
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char key = registers[Vx];
 
-        if(keypad.getPressedKey() == key) {
+        if(keypad.isPressed(key)) {
             pc += 2;
         }
     }
 
-    private void OP_ExA1(char instruction) {
+    void OP_ExA1(char instruction) {
         // Skip next instruction if key of value Vx is NOT pressed
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char key = registers[Vx];
 
-        if(keypad.getPressedKey() != key) {
+        if(!keypad.isPressed(key)) {
             pc += 2;
         }
     }
 
-    private void OP_Fx07(char instruction) {
+    void OP_Fx07(char instruction) {
         // Set Vx to delay timer value
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         registers[Vx] = delayTimer;
     }
 
-    private void OP_Fx0A(char instruction) {
+    void OP_Fx0A(char instruction) {
         // Wait until the next key is pressed, store its value in Vx
         char Vx = (char) ((instruction & 0x0F00) >> 8);
-        boolean keySet = false;
 
-        // We could also decrement pc by 2 (repeat current instruction) as an alternative to wait
-        while(!keySet) {
-            char currentKey = keypad.getPressedKey();
-            if(currentKey != 0xFFFF) {
-                registers[Vx] = currentKey;
-                keySet = true;
-            } else {
-                try {
-                    Thread.sleep(150);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        }
+        // Instead of blocking the thread the CPU goes into a wait state, the following cycles
+        // only poll the keypad so the timers keep ticking and the caller stays in control
+        char currentKey = keypad.getPressedKey();
+        if(currentKey != Keypad.NO_KEY) registers[Vx] = currentKey;
+        else keyWaitRegister = Vx;
     }
 
-    private void OP_Fx15(char instruction) {
+    void OP_Fx15(char instruction) {
         // Set delay timer to Vx
         char Vx = (char) ((instruction & 0x0F00) >> 8);
 
         delayTimer = registers[Vx];
     }
 
-    private void OP_Fx18(char instruction) {
+    void OP_Fx18(char instruction) {
         // Set sound timer to Vx
         char Vx = (char) ((instruction & 0x0F00) >> 8);
 
         soundTimer = registers[Vx];
     }
 
-    private void OP_Fx1E(char instruction) {
+    void OP_Fx1E(char instruction) {
         // Add Vx to index
         char Vx = (char) ((instruction & 0x0F00) >> 8);
 
@@ -443,7 +559,7 @@ public class Chip {
     }
 
     // TODO Check if starting from FONT_START address is necessary
-    private void OP_Fx29(char instruction) {
+    void OP_Fx29(char instruction) {
         // Set I to location of sprite for digit Vx
         char Vx = (char) ((instruction & 0x0F00) >> 8);
         char digit = registers[Vx];
@@ -451,7 +567,7 @@ public class Chip {
         index = (char) ((digit * 5));
     }
 
-    private void OP_Fx33(char instruction) {
+    void OP_Fx33(char instruction) {
         // Store BCD representation of Vx in memory locations I, I+1, and I+2.
         // Hundreds in I, tens in I+1, ones in I+3.
         char Vx = (char) ((instruction & 0x0F00) >> 8);
@@ -469,7 +585,7 @@ public class Chip {
         memory.writeByte(index, (char) (value%10));
     }
 
-    private void OP_Fx55(char instruction) {
+    void OP_Fx55(char instruction) {
         // Store registers V0 -> Vx in memory, starting at I
         char Vx = (char) ((instruction & 0x0F00) >> 8);
 
@@ -478,7 +594,7 @@ public class Chip {
         }
     }
 
-    private void OP_Fx65(char instruction) {
+    void OP_Fx65(char instruction) {
         // Read registers V0 -> Vx from memory, starting at I
         char Vx = (char) ((instruction & 0x0F00) >> 8);
 
@@ -509,6 +625,10 @@ public class Chip {
         return pc;
     }
 
+    public void setProgramCounter(char pc) {
+        this.pc = pc;
+    }
+
     public void setDelayTimer(char val) {
         this.delayTimer = val;
     }
@@ -525,6 +645,46 @@ public class Chip {
         return this.delayTimer;
     }
 
+    public RandomSource getRandomSource() {
+        return random;
+    }
+
+    public void setRandomSource(RandomSource random) {
+        this.random = random;
+    }
+
+    public long getCycleCount() {
+        return cycleCount;
+    }
+
+    public void setCycleCount(long cycleCount) {
+        this.cycleCount = cycleCount;
+    }
+
+    public int getCyclesUntilTimerTick() {
+        return cyclesUntilTimerTick;
+    }
+
+    public void setCyclesUntilTimerTick(int cycles) {
+        this.cyclesUntilTimerTick = cycles;
+    }
+
+    public boolean isWaitingForKey() {
+        return keyWaitRegister >= 0;
+    }
+
+    public int getKeyWaitRegister() {
+        return keyWaitRegister;
+    }
+
+    public void setKeyWaitRegister(int register) {
+        this.keyWaitRegister = register;
+    }
+
+    public int getCompiledBlockCount() {
+        return blockCache == null ? 0 : blockCache.size();
+    }
+
     public Stack getStack() {
         return stack;
     }
@@ -533,7 +693,11 @@ public class Chip {
         return memory;
     }
 
-    public Screen getScreen() {
-        return screen;
+    public Display getDisplay() {
+        return display;
+    }
+
+    public Keypad getKeypad() {
+        return keypad;
     }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package org.chip8_sim.CPU;
+
+// A run of straight-line instructions compiled into a hidden class by BlockCompiler
+@FunctionalInterface
+interface CompiledBlock {
+    void execute(Chip chip);
+}
@@ -0,0 +1,78 @@
+package org.chip8_sim.CPU;
+
+// Every possible instruction word decoded once up front, so decoding at runtime is a single array lookup.
+// There are only 65536 instruction words so the whole table is cheap to build and share between Chips.
+public final class DecodeTable {
+    private static final OpCodeTypes[] TYPES = new OpCodeTypes[0x10000];
+
+    static {
+        for (int i = 0; i < TYPES.length; i++) {
+            TYPES[i] = decode((char) i);
+        }
+    }
+
+    private DecodeTable() {
+    }
+
+    public static OpCodeTypes lookup(char code) {
+        return TYPES[code];
+    }
+
+    // The actual decoding logic, only used to build the table (and to benchmark against it)
+    public static OpCodeTypes decode(char code) {
+        // Checking if it's the 0x00E code so that we can exit early
+        if (code == 0x00E0) {
+            return OpCodeTypes.OP_00E0;
+        }
+        if (code == 0x00EE) {
+            return OpCodeTypes.OP_00EE;
+        }
+
+        // Using bitwise-AND to determine the OP code for each instruction
+        // Conditions for each code subgroup shown in OpCodeTypes enum
+        return switch (code & 0xF000) {
+            case 0x1000 -> OpCodeTypes.OP_1nnn;
+            case 0x2000 -> OpCodeTypes.OP_2nnn;
+            case 0x3000 -> OpCodeTypes.OP_3xkk;
+            case 0x4000 -> OpCodeTypes.OP_4xkk;
+            case 0x5000 -> OpCodeTypes.OP_5xy0;
+            case 0x6000 -> OpCodeTypes.OP_6xkk;
+            case 0x7000 -> OpCodeTypes.OP_7xkk;
+            case 0x8000 -> switch (code & 0x000F) {
+                case 0x0000 -> OpCodeTypes.OP_8xy0;
+                case 0x0001 -> OpCodeTypes.OP_8xy1;
+                case 0x0002 -> OpCodeTypes.OP_8xy2;
+                case 0x0003 -> OpCodeTypes.OP_8xy3;
+                case 0x0004 -> OpCodeTypes.OP_8xy4;
+                case 0x0005 -> OpCodeTypes.OP_8xy5;
+                case 0x0006 -> OpCodeTypes.OP_8xy6;
+                case 0x0007 -> OpCodeTypes.OP_8xy7;
+                case 0x000E -> OpCodeTypes.OP_8xyE;
+                default -> OpCodeTypes.UNSUPPORTED;
+            };
+            case 0x9000 -> OpCodeTypes.OP_9xy0;
+            case 0xA000 -> OpCodeTypes.OP_Annn;
+            case 0xB000 -> OpCodeTypes.OP_Bnnn;
+            case 0xC000 -> OpCodeTypes.OP_Cxkk;
+            case 0xD000 -> OpCodeTypes.OP_Dxyn;
+            case 0xE000 -> switch (code & 0x00FF) {
+                case 0X009E -> OpCodeTypes.OP_Ex9E;
+                case 0X00A1 -> OpCodeTypes.OP_ExA1;
+                default -> OpCodeTypes.UNSUPPORTED;
+            };
+            case 0xF000 -> switch (code & 0x00FF) {
+                case 0x0007 -> OpCodeTypes.OP_Fx07;
+                case 0x000A -> OpCodeTypes.OP_Fx0A;
+                case 0x0015 -> OpCodeTypes.OP_Fx15;
+                case 0x0018 -> OpCodeTypes.OP_Fx18;
+                case 0X001E -> OpCodeTypes.OP_Fx1E;
+                case 0X0029 -> OpCodeTypes.OP_Fx29;
+                case 0X0033 -> OpCodeTypes.OP_Fx33;
+                case 0X0055 -> OpCodeTypes.OP_Fx55;
+                case 0X0065 -> OpCodeTypes.OP_Fx65;
+                default -> OpCodeTypes.UNSUPPORTED;
+            };
+            default -> OpCodeTypes.UNSUPPORTED;
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package org.chip8_sim.CPU;
+
+// Renders instruction words in the usual Cowgod mnemonics, for traces and debugging
+public final class Disassembler {
+    private Disassembler() {
+    }
+
+    public static String disassemble(char instruction) {
+        int x = (instruction & 0x0F00) >> 8;
+        int y = (instruction & 0x00F0) >> 4;
+        int n = instruction & 0x000F;
+        int kk = instruction & 0x00FF;
+        int nnn = instruction & 0x0FFF;
+
+        return switch (DecodeTable.lookup(instruction)) {
+            case OP_00E0 -> "CLS";
+            case OP_00EE -> "RET";
+            case OP_1nnn -> String.format("JP %03X", nnn);
+            case OP_2nnn -> String.format("CALL %03X", nnn);
+            case OP_3xkk -> String.format("SE V%X, %02X", x, kk);
+            case OP_4xkk -> String.format("SNE V%X, %02X", x, kk);
+            case OP_5xy0 -> String.format("SE V%X, V%X", x, y);
+            case OP_6xkk -> String.format("LD V%X, %02X", x, kk);
+            case OP_7xkk -> String.format("ADD V%X, %02X", x, kk);
+            case OP_8xy0 -> String.format("LD V%X, V%X", x, y);
+            case OP_8xy1 -> String.format("OR V%X, V%X", x, y);
+            case OP_8xy2 -> String.format("AND V%X, V%X", x, y);
+            case OP_8xy3 -> String.format("XOR V%X, V%X", x, y);
+            case OP_8xy4 -> String.format("ADD V%X, V%X", x, y);
+            case OP_8xy5 -> String.format("SUB V%X, V%X", x, y);
+            case OP_8xy6 -> String.format("SHR V%X", x);
+            case OP_8xy7 -> String.format("SUBN V%X, V%X", x, y);
+            case OP_8xyE -> String.format("SHL V%X", x);
+            case OP_9xy0 -> String.format("SNE V%X, V%X", x, y);
+            case OP_Annn -> String.format("LD I, %03X", nnn);
+            case OP_Bnnn -> String.format("JP V0, %03X", nnn);
+            case OP_Cxkk -> String.format("RND V%X, %02X", x, kk);
+            case OP_Dxyn -> String.format("DRW V%X, V%X, %X", x, y, n);
+            case OP_Ex9E -> String.format("SKP V%X", x);
+            case OP_ExA1 -> String.format("SKNP V%X", x);
+            case OP_Fx07 -> String.format("LD V%X, DT", x);
+            case OP_Fx0A -> String.format("LD V%X, K", x);
+            case OP_Fx15 -> String.format("LD DT, V%X", x);
+            case OP_Fx18 -> String.format("LD ST, V%X", x);
+            case OP_Fx1E -> String.format("ADD I, V%X", x);
+            case OP_Fx29 -> String.format("LD F, V%X", x);
+            case OP_Fx33 -> String.format("LD B, V%X", x);
+            case OP_Fx55 -> String.format("LD [I], V%X", x);
+            case OP_Fx65 -> String.format("LD V%X, [I]", x);
+            case UNSUPPORTED -> String.format("DW %04X", (int) instruction);
+        };
+    }
+}
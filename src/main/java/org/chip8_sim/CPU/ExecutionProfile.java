@@ -0,0 +1,130 @@
+package org.chip8_sim.CPU;
+
+import java.util.Arrays;
+
+// Counts executed instructions per opcode type and per address in flat arrays, nothing is boxed or allocated
+// while counting. Attach it with Chip.setExecutionProfile. Compiled blocks are counted once per run and only
+// spread over their instructions when the counts are read, so the profile can stay on with the block compiler.
+public final class ExecutionProfile {
+    private static final OpCodeTypes[] TYPES = OpCodeTypes.values();
+    private static final int ADDRESSES = 4096;
+
+    private final long[] opcodeCounts = new long[TYPES.length];
+    private final long[] addressCounts = new long[ADDRESSES];
+    private final char[] addressInstructions = new char[ADDRESSES]; // last word executed at each address
+    // Runs of compiled blocks by start address that haven't been spread over their instructions yet
+    private final Block[] blocks = new Block[ADDRESSES];
+    private final long[] blockRuns = new long[ADDRESSES];
+
+    void count(int pc, char instruction) {
+        opcodeCounts[DecodeTable.lookup(instruction).ordinal()]++;
+        addressCounts[pc]++;
+        addressInstructions[pc] = instruction;
+    }
+
+    void countBlock(Block block) {
+        // A different block at the same address means the code was recompiled, settle the old one first
+        if (blocks[block.start] != block) {
+            flush(block.start);
+            blocks[block.start] = block;
+        }
+        blockRuns[block.start]++;
+    }
+
+    public long getOpcodeCount(OpCodeTypes type) {
+        flushAll();
+        return opcodeCounts[type.ordinal()];
+    }
+
+    public long getAddressCount(int address) {
+        flushAll();
+        return addressCounts[address];
+    }
+
+    public long getTotal() {
+        flushAll();
+        long total = 0;
+        for (long count : opcodeCounts) total += count;
+        return total;
+    }
+
+    // The n most executed addresses, most executed first, addresses that never ran are left out
+    public int[] hotAddresses(int n) {
+        if (n <= 0) return new int[0];
+        flushAll();
+        int[] top = new int[Math.min(n, ADDRESSES)];
+        int size = 0;
+        for (int address = 0; address < ADDRESSES; address++) {
+            long count = addressCounts[address];
+            if (count == 0 || (size == top.length && count <= addressCounts[top[size - 1]])) continue;
+
+            // Insertion into the sorted top list, earlier addresses win ties
+            int slot = size < top.length ? size++ : size - 1;
+            while (slot > 0 && addressCounts[top[slot - 1]] < count) {
+                top[slot] = top[slot - 1];
+                slot--;
+            }
+            top[slot] = address;
+        }
+        return Arrays.copyOf(top, size);
+    }
+
+    // Opcode types by count, most executed first, types that never ran are left out
+    public OpCodeTypes[] opcodeHistogram() {
+        flushAll();
+        return Arrays.stream(TYPES)
+                .filter(type -> opcodeCounts[type.ordinal()] > 0)
+                .sorted((a, b) -> Long.compare(opcodeCounts[b.ordinal()], opcodeCounts[a.ordinal()]))
+                .toArray(OpCodeTypes[]::new);
+    }
+
+    public String report(int topAddresses) {
+        long total = getTotal();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d instructions%n", total));
+
+        report.append(String.format("Opcodes:%n"));
+        for (OpCodeTypes type : opcodeHistogram()) {
+            long count = opcodeCounts[type.ordinal()];
+            report.append(String.format("  %-12s %12d  %5.1f%%%n", type, count, 100.0 * count / total));
+        }
+
+        report.append(String.format("Hot addresses:%n"));
+        for (int address : hotAddresses(topAddresses)) {
+            long count = addressCounts[address];
+            char instruction = addressInstructions[address];
+            report.append(String.format("  %03X  %04X  %-16s %12d  %5.1f%%%n",
+                    address, (int) instruction, Disassembler.disassemble(instruction), count, 100.0 * count / total));
+        }
+        return report.toString();
+    }
+
+    public void reset() {
+        Arrays.fill(opcodeCounts, 0);
+        Arrays.fill(addressCounts, 0);
+        Arrays.fill(addressInstructions, (char) 0);
+        Arrays.fill(blocks, null);
+        Arrays.fill(blockRuns, 0);
+    }
+
+    private void flush(int start) {
+        Block block = blocks[start];
+        long runs = blockRuns[start];
+        if (block == null || runs == 0) return;
+
+        for (int i = 0; i < block.length; i++) {
+            char instruction = block.words[i];
+            int address = start + i * 2;
+            opcodeCounts[DecodeTable.lookup(instruction).ordinal()] += runs;
+            addressCounts[address] += runs;
+            addressInstructions[address] = instruction;
+        }
+        blockRuns[start] = 0;
+    }
+
+    private void flushAll() {
+        for (int start = 0; start < ADDRESSES; start++) {
+            if (blockRuns[start] != 0) flush(start);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.chip8_sim.CPU;
+
+// Summary of an uncapped run, see Chip.runUncapped
+public class ExecutionReport {
+    private final long instructions;
+    private final long timerTicks;
+    private final long elapsedNanos;
+    private final boolean halted;
+
+    public ExecutionReport(long instructions, long timerTicks, long elapsedNanos, boolean halted) {
+        this.instructions = instructions;
+        this.timerTicks = timerTicks;
+        this.elapsedNanos = elapsedNanos;
+        this.halted = halted;
+    }
+
+    public long getInstructions() {
+        return instructions;
+    }
+
+    public long getTimerTicks() {
+        return timerTicks;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // True if the run stopped on an unsupported opcode before the budget ran out
+    public boolean isHalted() {
+        return halted;
+    }
+
+    public double getInstructionsPerSecond() {
+        if (elapsedNanos == 0) return 0;
+        return instructions * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Executed %d instructions (%d timer ticks) in %.3f ms, %.0f instructions/s%s",
+                instructions, timerTicks, elapsedNanos / 1_000_000.0, getInstructionsPerSecond(),
+                halted ? ", halted on unsupported opcode" : "");
+    }
+}
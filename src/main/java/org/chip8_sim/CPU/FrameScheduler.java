@@ -0,0 +1,111 @@
+package org.chip8_sim.CPU;
+
+import org.chip8_sim.Metrics.Metrics;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Runs a Chip in real time, one 60Hz frame at a time. Every frame executes its share of the clock rate back
+// to back and ticks the timers once, then the thread parks until the frame's deadline. Deadlines are counted
+// from the start of the run instead of from the previous wakeup, so oversleeping in one frame is made up in
+// the next and the rate doesn't drift. The clock rate is spread over the frames exactly, at 400Hz frames
+// get 6 or 7 instructions and every second has 400.
+public class FrameScheduler {
+    public static final int DEFAULT_CLOCK_HZ = 400;
+    public static final int FRAME_HZ = 60;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // Further behind than this and the schedule restarts from now instead of running frames back to back to catch up
+    private static final int MAX_FRAMES_BEHIND = 5;
+
+    private final Chip chip;
+    private final int clockHz;
+    private volatile boolean running = false;
+    // Set by stop(), cleared by the run that sees it. A stop that comes before the run starts still ends it
+    private volatile boolean stopRequested = false;
+    private volatile Thread runner = null; // the thread in runFrames, so stop() can cut its park short
+
+    public FrameScheduler(Chip chip, int clockHz) {
+        if (clockHz <= 0) throw new IllegalArgumentException("clockHz must be positive");
+        this.chip = chip;
+        this.clockHz = clockHz;
+    }
+
+    public FrameScheduler(Chip chip) {
+        this(chip, DEFAULT_CLOCK_HZ);
+    }
+
+    // Until stop() or an unsupported instruction
+    public ExecutionReport run() {
+        return runFrames(Long.MAX_VALUE);
+    }
+
+    public ExecutionReport runFrames(long frames) {
+        Metrics metrics = chip.getMetrics();
+        long expectedFrameNanos = NANOS_PER_SECOND / FRAME_HZ;
+        long instructions = 0;
+        long timerTicks = 0;
+        boolean halted = false;
+        runner = Thread.currentThread();
+        running = true;
+
+        long start = System.nanoTime();
+        long scheduleStart = start;
+        long scheduleFrame = 0; // frames since scheduleStart
+        long lastFrameStart = start;
+
+        for (long frame = 0; frame < frames && !stopRequested; frame++) {
+            long frameStart = System.nanoTime();
+            if (frame > 0) metrics.timerTick(frameStart - lastFrameStart, expectedFrameNanos);
+            lastFrameStart = frameStart;
+
+            ExecutionReport report = chip.runFrame(instructionsForFrame(frame, clockHz));
+            instructions += report.getInstructions();
+            timerTicks += report.getTimerTicks();
+            if (report.isHalted()) {
+                halted = true;
+                break;
+            }
+
+            scheduleFrame++;
+            long deadline = scheduleStart + scheduleFrame * NANOS_PER_SECOND / FRAME_HZ;
+            long remaining = deadline - System.nanoTime();
+            if (remaining < 0) {
+                metrics.overrun();
+                if (-remaining > MAX_FRAMES_BEHIND * expectedFrameNanos) {
+                    scheduleStart = System.nanoTime();
+                    scheduleFrame = 0;
+                }
+                continue;
+            }
+            // parkNanos may return early, keep parking until the deadline has really passed
+            while (remaining > 0 && !stopRequested) {
+                LockSupport.parkNanos(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+        stopRequested = false;
+        running = false;
+        runner = null;
+        return new ExecutionReport(instructions, timerTicks, System.nanoTime() - start, halted);
+    }
+
+    // Safe to call from any thread, the current frame finishes first. Called before the run starts,
+    // the run ends right away.
+    public void stop() {
+        stopRequested = true;
+        Thread thread = runner;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getClockHz() {
+        return clockHz;
+    }
+
+    // Instructions in the given frame, chosen so the first n frames always add up to n * clockHz / 60 rounded down
+    public static int instructionsForFrame(long frame, int clockHz) {
+        return (int) ((frame + 1) * clockHz / FRAME_HZ - frame * clockHz / FRAME_HZ);
+    }
+}
@@ -0,0 +1,7 @@
+package org.chip8_sim.CPU;
+
+// Handler for one opcode type, entries of the Chip dispatch table
+@FunctionalInterface
+interface Instruction {
+    void execute(Chip chip, char instruction);
+}
@@ -0,0 +1,447 @@
+package org.chip8_sim.CPU;
+
+import org.chip8_sim.Display.FrameBuffer;
+import org.chip8_sim.Keyboard.Keypad;
+
+import java.util.stream.IntStream;
+
+// Many machines running the same kind of workload (one ROM, different seeds and inputs) kept as a structure
+// of arrays: every field of every machine lives in one flat primitive array indexed by machine, so there are
+// no per-machine objects and a batch walks memory in order. step() advances every machine by the same number
+// of cycles, between steps the caller feeds keys per machine and observes registers or screens in bulk.
+// The instructions follow Chip's handlers exactly, quirks included, and toChip/load convert in both
+// directions so a machine can be checked against, or handed over to, the interpreter.
+// Each machine runs its whole batch before the next one starts, the machines are independent so this
+// ends in the same state as going cycle by cycle across all of them and keeps each machine in cache.
+public final class LockstepEngine {
+    public static final byte RUNNING = 0;
+    public static final byte HALTED = 1; // stopped on an unsupported instruction, like Chip.runUncapped
+    public static final byte FAILED = 2; // a handler would have thrown (stack or memory out of range)
+
+    private static final int REGISTERS = 16;
+    private static final int STACK_SIZE = 16;
+    private static final int MEMORY_SIZE = 4096;
+    private static final int ROWS = 32;
+    private static final int VF = 0xF;
+    private static final int MACHINES_PER_TASK = 64;
+
+    private final int machines;
+    private final int cyclesPerTimerTick;
+
+    private final char[] registers;
+    private final char[] pcs;
+    private final char[] indexes;
+    private final char[] delayTimers;
+    private final char[] soundTimers;
+    private final char[] stacks;
+    private final byte[] stackPointers;
+    private final byte[] memory;
+    private final long[] rows;
+    private final long[] randomStates;
+    private final int[] keys;
+    private final byte[] keyWaitRegisters;
+    private final long[] cycleCounts;
+    private final int[] cyclesUntilTimerTick;
+    private final byte[] status;
+
+    public LockstepEngine(int machines, int cyclesPerTimerTick) {
+        if (machines <= 0) throw new IllegalArgumentException("machines must be positive");
+        if (cyclesPerTimerTick <= 0) throw new IllegalArgumentException("cyclesPerTimerTick must be positive");
+        this.machines = machines;
+        this.cyclesPerTimerTick = cyclesPerTimerTick;
+
+        registers = new char[machines * REGISTERS];
+        pcs = new char[machines];
+        indexes = new char[machines];
+        delayTimers = new char[machines];
+        soundTimers = new char[machines];
+        stacks = new char[machines * STACK_SIZE];
+        stackPointers = new byte[machines];
+        memory = new byte[machines * MEMORY_SIZE];
+        rows = new long[machines * ROWS];
+        randomStates = new long[machines];
+        keys = new int[machines];
+        keyWaitRegisters = new byte[machines];
+        cycleCounts = new long[machines];
+        cyclesUntilTimerTick = new int[machines];
+        status = new byte[machines];
+
+        // Every machine starts like a fresh Chip, fonts loaded and the pc at the start address
+        Memory blank = new Memory();
+        for (int m = 0; m < machines; m++) {
+            blank.copyTo(memory, m * MEMORY_SIZE);
+            pcs[m] = Addresses.START_ADDRESS.address;
+            stackPointers[m] = -1;
+            keyWaitRegisters[m] = -1;
+            cyclesUntilTimerTick[m] = Chip.DEFAULT_CYCLES_PER_TIMER_TICK;
+            randomStates[m] = XorShiftRandom.stateFor(m);
+        }
+    }
+
+    public LockstepEngine(int machines) {
+        this(machines, Chip.DEFAULT_CYCLES_PER_TIMER_TICK);
+    }
+
+    public void loadROM(byte[] rom) {
+        int capacity = MEMORY_SIZE - Addresses.START_ADDRESS.address;
+        if (rom.length > capacity)
+            throw new IllegalArgumentException("ROM is " + rom.length + " bytes, only " + capacity + " fit in memory");
+        for (int m = 0; m < machines; m++) {
+            System.arraycopy(rom, 0, memory, m * MEMORY_SIZE + Addresses.START_ADDRESS.address, rom.length);
+        }
+    }
+
+    // Same sequence as a Chip with new XorShiftRandom(seed)
+    public void setSeed(int machine, long seed) {
+        randomStates[machine] = XorShiftRandom.stateFor(seed);
+    }
+
+    // Keys held by the machine from now on, bit n for key n, like Keypad.getPressedKeys
+    public void setKeys(int machine, int pressedKeys) {
+        keys[machine] = pressedKeys & 0xFFFF;
+    }
+
+    public void setKeys(int[] pressedKeys) {
+        for (int m = 0; m < machines; m++) keys[m] = pressedKeys[m] & 0xFFFF;
+    }
+
+    // Advances every running machine by cycles
+    public void step(int cycles) {
+        for (int m = 0; m < machines; m++) {
+            if (status[m] == RUNNING) run(m, cycles);
+        }
+    }
+
+    // Same as step, with the machines spread over the common fork join pool
+    public void stepParallel(int cycles) {
+        int tasks = (machines + MACHINES_PER_TASK - 1) / MACHINES_PER_TASK;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            int end = Math.min(machines, (task + 1) * MACHINES_PER_TASK);
+            for (int m = task * MACHINES_PER_TASK; m < end; m++) {
+                if (status[m] == RUNNING) run(m, cycles);
+            }
+        });
+    }
+
+    private void run(int m, int cycles) {
+        int r = m * REGISTERS;
+        int base = m * MEMORY_SIZE;
+        int untilTimerTick = Math.min(cyclesUntilTimerTick[m], cyclesPerTimerTick);
+        int executed = 0;
+
+        try {
+            while (executed < cycles) {
+                // Waiting on Fx0A, the cycle only polls the keys
+                if (keyWaitRegisters[m] >= 0) {
+                    if (keys[m] == 0) {
+                        executed++;
+                        if (--untilTimerTick == 0) {
+                            untilTimerTick = cyclesPerTimerTick;
+                            tickTimers(m);
+                        }
+                        continue;
+                    }
+                    registers[r + keyWaitRegisters[m]] = (char) Integer.numberOfTrailingZeros(keys[m]);
+                    keyWaitRegisters[m] = -1;
+                }
+
+                int pc = pcs[m];
+                if (pc + 1 >= MEMORY_SIZE) throw new ArrayIndexOutOfBoundsException(pc + 1);
+                char instruction = (char) (((memory[base + pc] & 0xFF) << 8) | (memory[base + pc + 1] & 0xFF));
+                pcs[m] += 2;
+
+                if (!execute(m, r, base, instruction)) {
+                    status[m] = HALTED;
+                    break;
+                }
+                executed++;
+
+                if (--untilTimerTick == 0) {
+                    untilTimerTick = cyclesPerTimerTick;
+                    tickTimers(m);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // Where Chip would have thrown out of the handler
+            status[m] = FAILED;
+        }
+        cyclesUntilTimerTick[m] = untilTimerTick;
+        cycleCounts[m] += executed;
+    }
+
+    private void tickTimers(int m) {
+        if (delayTimers[m] > 0) --delayTimers[m];
+        if (soundTimers[m] > 0) --soundTimers[m];
+    }
+
+    // One instruction of machine m with the pc already past it, false if it isn't supported
+    private boolean execute(int m, int r, int base, char instruction) {
+        int x = (instruction & 0x0F00) >> 8;
+        int y = (instruction & 0x00F0) >> 4;
+        char kk = (char) (instruction & 0x00FF);
+        char nnn = (char) (instruction & 0x0FFF);
+
+        switch (DecodeTable.lookup(instruction)) {
+            case OP_00E0 -> {
+                for (int row = 0; row < ROWS; row++) rows[m * ROWS + row] = 0;
+            }
+            case OP_00EE -> pcs[m] = stacks[m * STACK_SIZE + checkStack(stackPointers[m]--)];
+            case OP_1nnn -> pcs[m] = nnn;
+            case OP_2nnn -> {
+                stacks[m * STACK_SIZE + checkStack(++stackPointers[m])] = pcs[m];
+                pcs[m] = nnn;
+            }
+            case OP_3xkk -> {
+                if (registers[r + x] == kk) pcs[m] += 2;
+            }
+            case OP_4xkk -> {
+                if (registers[r + x] != kk) pcs[m] += 2;
+            }
+            case OP_5xy0 -> {
+                if (registers[r + x] == registers[r + y]) pcs[m] += 2;
+            }
+            case OP_6xkk -> registers[r + x] = kk;
+            case OP_7xkk -> registers[r + x] += kk;
+            case OP_8xy0 -> registers[r + x] = registers[r + y];
+            case OP_8xy1 -> registers[r + x] |= registers[r + y];
+            case OP_8xy2 -> registers[r + x] &= registers[r + y];
+            case OP_8xy3 -> registers[r + x] ^= registers[r + y];
+            case OP_8xy4 -> {
+                char sum = (char) (registers[r + x] + registers[r + y]);
+                if ((sum & 0xFF00) > 0) {
+                    registers[r + VF] = 0x01;
+                    sum &= 0x00FF;
+                } else registers[r + VF] = 0x00;
+                registers[r + x] = sum;
+            }
+            case OP_8xy5 -> {
+                char result = (char) (registers[r + x] - registers[r + y]);
+                if (registers[r + x] > registers[r + y]) {
+                    registers[r + VF] = 0x01;
+                } else {
+                    registers[r + VF] = 0x00;
+                    result &= 0x00FF;
+                }
+                registers[r + x] = result;
+            }
+            case OP_8xy6 -> {
+                registers[r + VF] = (char) (registers[r + x] & 0x1);
+                registers[r + x] >>= 1;
+            }
+            case OP_8xy7 -> {
+                char result = (char) (registers[r + y] - registers[r + x]);
+                if (registers[r + y] > registers[r + x]) {
+                    registers[r + VF] = 0x01;
+                } else {
+                    registers[r + VF] = 0x00;
+                    result &= 0x00FF;
+                }
+                registers[r + x] = result;
+            }
+            case OP_8xyE -> {
+                registers[r + VF] = (char) ((registers[r + x] & 0x80) >> 7);
+                registers[r + x] = (char) ((registers[r + x] << 1) & 0x00FF);
+            }
+            case OP_9xy0 -> {
+                if (registers[r + x] != registers[r + y]) pcs[m] += 2;
+            }
+            case OP_Annn -> indexes[m] = nnn;
+            case OP_Bnnn -> pcs[m] = (char) (nnn + registers[r]);
+            case OP_Cxkk -> {
+                randomStates[m] = XorShiftRandom.next(randomStates[m]);
+                registers[r + x] = (char) (XorShiftRandom.output(randomStates[m]) & kk);
+            }
+            case OP_Dxyn -> registers[r + VF] = drawSprite(m, base, registers[r + x], registers[r + y], instruction & 0x000F) ? (char) 1 : 0;
+            case OP_Ex9E -> {
+                if (isPressed(m, registers[r + x])) pcs[m] += 2;
+            }
+            case OP_ExA1 -> {
+                if (!isPressed(m, registers[r + x])) pcs[m] += 2;
+            }
+            case OP_Fx07 -> registers[r + x] = delayTimers[m];
+            case OP_Fx0A -> {
+                if (keys[m] != 0) registers[r + x] = (char) Integer.numberOfTrailingZeros(keys[m]);
+                else keyWaitRegisters[m] = (byte) x;
+            }
+            case OP_Fx15 -> delayTimers[m] = registers[r + x];
+            case OP_Fx18 -> soundTimers[m] = registers[r + x];
+            case OP_Fx1E -> indexes[m] += registers[r + x];
+            case OP_Fx29 -> indexes[m] = (char) (registers[r + x] * 5);
+            case OP_Fx33 -> {
+                char value = registers[r + x];
+                writeByte(base, indexes[m] + 2, value % 10);
+                value /= 10;
+                writeByte(base, indexes[m] + 1, value % 10);
+                value /= 10;
+                writeByte(base, indexes[m], value % 10);
+            }
+            case OP_Fx55 -> {
+                for (int i = 0; i < x; i++) writeByte(base, indexes[m] + i, registers[r + i]);
+            }
+            case OP_Fx65 -> {
+                for (int i = 0; i < x; i++) registers[r + i] = readByte(base, indexes[m] + i);
+            }
+            case UNSUPPORTED -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean drawSprite(int m, int base, int x, int y, int length) {
+        // Same as FrameBuffer.drawSprite, the sprite byte is rotated into place so it wraps around the right edge
+        x %= 64;
+        long collided = 0;
+        for (int i = 0; i < length && y + i <= 31; i++) {
+            long mask = Long.rotateRight((long) readByte(base, indexes[m] + i) << 56, x);
+            int row = m * ROWS + y + i;
+            collided |= rows[row] & mask;
+            rows[row] ^= mask;
+        }
+        return collided != 0;
+    }
+
+    private boolean isPressed(int m, int key) {
+        return key <= 0xF && (keys[m] & (1 << key)) != 0;
+    }
+
+    private char readByte(int base, int address) {
+        if (address >= MEMORY_SIZE) throw new ArrayIndexOutOfBoundsException(address);
+        return (char) (memory[base + address] & 0xFF);
+    }
+
+    private void writeByte(int base, int address, int value) {
+        if (address >= MEMORY_SIZE) throw new ArrayIndexOutOfBoundsException(address);
+        memory[base + address] = (byte) value;
+    }
+
+    private static int checkStack(int sp) {
+        if (sp < 0 || sp >= STACK_SIZE) throw new ArrayIndexOutOfBoundsException(sp);
+        return sp;
+    }
+
+    // ------------------ Observation ------------------
+
+    public int getMachineCount() {
+        return machines;
+    }
+
+    public byte getStatus(int machine) {
+        return status[machine];
+    }
+
+    public char getProgramCounter(int machine) {
+        return pcs[machine];
+    }
+
+    public char getIndex(int machine) {
+        return indexes[machine];
+    }
+
+    public char getRegister(int machine, int register) {
+        return registers[machine * REGISTERS + register];
+    }
+
+    public char getDelayTimer(int machine) {
+        return delayTimers[machine];
+    }
+
+    public char getSoundTimer(int machine) {
+        return soundTimers[machine];
+    }
+
+    public long getCycleCount(int machine) {
+        return cycleCounts[machine];
+    }
+
+    public long getRow(int machine, int y) {
+        return rows[machine * ROWS + y];
+    }
+
+    // One register of every machine
+    public void observeRegister(int register, char[] destination) {
+        for (int m = 0; m < machines; m++) destination[m] = registers[m * REGISTERS + register];
+    }
+
+    // All 32 rows of every machine, machine after machine
+    public void observeScreens(long[] destination) {
+        System.arraycopy(rows, 0, destination, 0, rows.length);
+    }
+
+    public void observeStatus(byte[] destination) {
+        System.arraycopy(status, 0, destination, 0, machines);
+    }
+
+    // FrameBuffer.hash of every machine's screen
+    public void frameHashes(long[] destination) {
+        for (int m = 0; m < machines; m++) {
+            long hash = 0xcbf29ce484222325L;
+            for (int y = 0; y < ROWS; y++) {
+                long row = rows[m * ROWS + y];
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    hash ^= (row >>> shift) & 0xFF;
+                    hash *= 0x100000001b3L;
+                }
+            }
+            destination[m] = hash;
+        }
+    }
+
+    // ------------------ Conversion ------------------
+
+    // A Chip in exactly the machine's state, with a keypad holding the machine's keys
+    public Chip toChip(int machine) {
+        Keypad keypad = new Keypad();
+        for (int key = 0; key < 16; key++) {
+            if ((keys[machine] & (1 << key)) != 0) keypad.press((char) key);
+        }
+        Chip chip = new Chip(new FrameBuffer(), keypad);
+
+        chip.setProgramCounter(pcs[machine]);
+        chip.setIndex(indexes[machine]);
+        chip.setDelayTimer(delayTimers[machine]);
+        chip.setSoundTimer(soundTimers[machine]);
+        chip.setKeyWaitRegister(keyWaitRegisters[machine]);
+        chip.setCycleCount(cycleCounts[machine]);
+        chip.setCyclesUntilTimerTick(cyclesUntilTimerTick[machine]);
+        System.arraycopy(registers, machine * REGISTERS, chip.getRegisters(), 0, REGISTERS);
+        chip.getStack().setSp(stackPointers[machine]);
+        System.arraycopy(stacks, machine * STACK_SIZE, chip.getStack().getEntries(), 0, STACK_SIZE);
+        XorShiftRandom random = new XorShiftRandom();
+        random.setState(randomStates[machine]);
+        chip.setRandomSource(random);
+        chip.getMemory().copyFrom(memory, machine * MEMORY_SIZE);
+
+        long[] screen = new long[ROWS];
+        System.arraycopy(rows, machine * ROWS, screen, 0, ROWS);
+        chip.getDisplay().restoreRows(screen);
+        return chip;
+    }
+
+    // Puts the Chip's state into the machine, the Chip has to use an XorShiftRandom
+    public void load(int machine, Chip chip) {
+        if (!(chip.getRandomSource() instanceof XorShiftRandom random))
+            throw new IllegalArgumentException("Only chips with an XorShiftRandom can be loaded");
+        SaveState.checkMachineState(chip.getProgramCounter(), chip.getKeyWaitRegister(), chip.getCycleCount(),
+                chip.getCyclesUntilTimerTick(), chip.getStack().getSp());
+
+        pcs[machine] = chip.getProgramCounter();
+        indexes[machine] = chip.getIndex();
+        delayTimers[machine] = chip.getDelayTimer();
+        soundTimers[machine] = chip.getSoundTimer();
+        keyWaitRegisters[machine] = (byte) chip.getKeyWaitRegister();
+        cycleCounts[machine] = chip.getCycleCount();
+        cyclesUntilTimerTick[machine] = chip.getCyclesUntilTimerTick();
+        System.arraycopy(chip.getRegisters(), 0, registers, machine * REGISTERS, REGISTERS);
+        stackPointers[machine] = chip.getStack().getSp();
+        System.arraycopy(chip.getStack().getEntries(), 0, stacks, machine * STACK_SIZE, STACK_SIZE);
+        randomStates[machine] = random.getState();
+        chip.getMemory().copyTo(memory, machine * MEMORY_SIZE);
+        keys[machine] = chip.getKeypad().getPressedKeys();
+
+        long[] screen = new long[ROWS];
+        chip.getDisplay().copyRows(screen);
+        System.arraycopy(screen, 0, rows, machine * ROWS, ROWS);
+        status[machine] = RUNNING;
+    }
+}
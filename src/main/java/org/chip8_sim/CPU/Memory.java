@@ -1,13 +1,20 @@
 package org.chip8_sim.CPU;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 
 import static org.chip8_sim.CPU.Addresses.START_ADDRESS;
 
 public class Memory {
-    private final char[] memory = new char[4096];
+    // Writes are tracked per 64-byte page, caches over the code compare generations to find out what changed
+    public static final int PAGE_SHIFT = 6;
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    // One byte per cell, read back unsigned
+    private final byte[] memory = new byte[4096];
+    // Bumped on every write to the page, never reset
+    private final int[] pageGenerations = new int[memory.length >> PAGE_SHIFT];
 
     public Memory() {
         char[] sprites = {
@@ -28,34 +35,80 @@ public class Memory {
                 0xf0, 0x80, 0xf0, 0x80, 0xf0,
                 0xf0, 0x80, 0xf0, 0x80, 0x80
         };
-        System.arraycopy(sprites, 0, memory, 0, sprites.length);
+        for (int i = 0; i < sprites.length; i++) {
+            memory[i] = (byte) sprites[i];
+        }
     }
 
     public void loadROM (String filePath) throws IOException {
-        // Reading the ROM data from the file
-        File ROM = new File(filePath);
-        try (FileInputStream inputStream = new FileInputStream(ROM)) {
-            byte[] arr = inputStream.readAllBytes();
-
-            // Writing the data into memory
-            for (int i = 0; i < arr.length; i++) {
-                memory[i + START_ADDRESS.address] = (char) (arr[i] & 0xFF);
-            }
-        }
+        // ROMs come from the shared cache, so booting the same ROM again doesn't touch the disk
+        loadROM(RomCache.getShared().load(Paths.get(filePath)));
+    }
+
+    public void loadROM(RomImage rom) {
+        rom.copyTo(memory, START_ADDRESS.address);
+        touch(START_ADDRESS.address, START_ADDRESS.address + rom.size());
+    }
+
+    public void loadROM(byte[] rom) {
+        int capacity = memory.length - START_ADDRESS.address;
+        if (rom.length > capacity)
+            throw new IllegalArgumentException("ROM is " + rom.length + " bytes, only " + capacity + " fit in memory");
+        System.arraycopy(rom, 0, memory, START_ADDRESS.address, rom.length);
+        touch(START_ADDRESS.address, START_ADDRESS.address + rom.length);
     }
 
     public char readInstruction(int index) {
         // Getting the next 2 instructions and combining them to make up the opcode
-        char p1 = memory[index];
-        char p2 = memory[index + 1];
+        int p1 = memory[index] & 0xFF;
+        int p2 = memory[index + 1] & 0xFF;
         return (char) ((p1 << 8) | p2);
     }
 
     public void writeByte(int index, char b) {
-        memory[index] = b;
+        memory[index] = (byte) b;
+        pageGenerations[index >> PAGE_SHIFT]++;
     }
 
     public char readByte(int index) {
-        return memory[index];
+        return (char) (memory[index] & 0xFF);
+    }
+
+    public int size() {
+        return memory.length;
+    }
+
+    // Bulk access to the whole address space, for save states and hashing
+    public void copyTo(byte[] destination, int offset) {
+        System.arraycopy(memory, 0, destination, offset, memory.length);
+    }
+
+    public void copyFrom(byte[] source, int offset) {
+        System.arraycopy(source, offset, memory, 0, memory.length);
+        touch(0, memory.length);
+    }
+
+    public ByteBuffer asReadOnlyBuffer() {
+        return ByteBuffer.wrap(memory).asReadOnlyBuffer();
+    }
+
+    public int getPageGeneration(int page) {
+        return pageGenerations[page];
+    }
+
+    public int pageCount() {
+        return pageGenerations.length;
+    }
+
+    public static int pageOf(int address) {
+        return address >> PAGE_SHIFT;
+    }
+
+    // Marks the pages covering [from, to) as written
+    private void touch(int from, int to) {
+        if (from >= to) return;
+        for (int page = from >> PAGE_SHIFT; page <= (to - 1) >> PAGE_SHIFT; page++) {
+            pageGenerations[page]++;
+        }
     }
 }
@@ -0,0 +1,7 @@
+package org.chip8_sim.CPU;
+
+// Source of the random bytes used by Cxkk, pluggable so runs can be made reproducible
+public interface RandomSource {
+    // Returns a value in [0, 255]
+    int nextByte();
+}
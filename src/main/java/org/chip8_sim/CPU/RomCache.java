@@ -0,0 +1,80 @@
+package org.chip8_sim.CPU;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Loads each ROM file once and hands out the same immutable RomImage afterwards.
+// Images are looked up by path and checked against the file's size and modification time,
+// and identical ROMs under different names share their bytes so they take memory once.
+// Both maps keep the most recently used MAX_ENTRIES, older ROMs are read again when they come back.
+public class RomCache {
+    public static final int MAX_ROM_SIZE = 0x1000 - Addresses.START_ADDRESS.address;
+    public static final int MAX_ENTRIES = 256;
+
+    private static final RomCache shared = new RomCache();
+
+    // Guarded by this, loads are rare and the file is read outside the lock
+    private final Map<Path, RomImage> byPath = lruMap();
+    private final Map<Long, RomImage> byHash = lruMap();
+
+    public static RomCache getShared() {
+        return shared;
+    }
+
+    public RomImage load(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        long size = Files.size(key);
+        long lastModified = Files.getLastModifiedTime(key).toMillis();
+
+        synchronized (this) {
+            RomImage cached = byPath.get(key);
+            if (cached != null && cached.size() == size && cached.getLastModified() == lastModified) return cached;
+        }
+
+        RomImage image = read(key, lastModified);
+        synchronized (this) {
+            RomImage existing = byHash.putIfAbsent(image.getHash(), image);
+            if (existing != null && existing.sameContents(image)) image = image.withContentsOf(existing);
+            byPath.put(key, image);
+        }
+        return image;
+    }
+
+    public synchronized int size() {
+        return byPath.size();
+    }
+
+    public synchronized void clear() {
+        byPath.clear();
+        byHash.clear();
+    }
+
+    private static <K> Map<K, RomImage> lruMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, RomImage> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+
+    private static RomImage read(Path path, long lastModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            long size = channel.size();
+            if (size == 0) throw new IOException("ROM " + path + " is empty");
+            if (size > MAX_ROM_SIZE)
+                throw new IOException("ROM " + path + " is " + size + " bytes, only " + MAX_ROM_SIZE + " fit between 0x200 and 0xFFF");
+
+            // Map the file and copy it out once, the image never changes even if the file does
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] data = new byte[(int) size];
+            mapped.get(data);
+            return new RomImage(path, data, lastModified);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.chip8_sim.CPU;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Immutable ROM contents read from one path, shared by every Chip that boots that file (see RomCache).
+// Images of identical files under different paths share the bytes but each keeps its own path.
+public final class RomImage {
+    private final Path path;
+    private final byte[] data;
+    private final long hash;
+    private final long lastModified;
+
+    RomImage(Path path, byte[] data, long lastModified) {
+        this(path, data, hash(data), lastModified);
+    }
+
+    private RomImage(Path path, byte[] data, long hash, long lastModified) {
+        this.path = path;
+        this.data = data;
+        this.hash = hash;
+        this.lastModified = lastModified;
+    }
+
+    // The same image read from path, keeping this image's bytes
+    RomImage withContentsOf(RomImage contents) {
+        return new RomImage(path, contents.data, hash, lastModified);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public int size() {
+        return data.length;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    // Bulk copy into a Chip's memory, the only way the bytes leave the image
+    void copyTo(byte[] destination, int offset) {
+        System.arraycopy(data, 0, destination, offset, data.length);
+    }
+
+    boolean sameContents(RomImage other) {
+        return hash == other.hash && Arrays.equals(data, other.data);
+    }
+
+    // True when both images use the same copy of the bytes
+    public boolean sharesContents(RomImage other) {
+        return data == other.data;
+    }
+
+    // FNV-1a, also lets identical ROMs found under different paths share one image
+    static long hash(byte[] data) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
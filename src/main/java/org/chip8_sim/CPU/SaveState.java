@@ -0,0 +1,155 @@
+package org.chip8_sim.CPU;
+
+import java.nio.ByteBuffer;
+
+// Compact binary snapshot of a whole Chip, everything the next instruction could depend on.
+// Layout (big endian), version 3:
+//   int    magic 'C8SS'
+//   short  version
+//   char   pc, index, delay timer, sound timer
+//   byte   register Fx0A is waiting to store a key in, -1 when not waiting
+//   long   cycle count
+//   int    cycles until the next timer tick
+//   char   V0 - VF
+//   byte   stack pointer
+//   char   16 stack entries
+//   byte   random source kind (0 = not saved, 1 = XorShiftRandom) followed by a long state for kind 1
+//   byte   4096 bytes of memory
+//   long   32 framebuffer rows
+// Keypad state isn't saved, input belongs to whoever drives the Chip.
+public final class SaveState {
+    public static final int MAGIC = 0x43385353;
+    public static final short VERSION = 3;
+
+    private static final int REGISTERS = 16;
+    private static final int STACK_SIZE = 16;
+    private static final int MEMORY_SIZE = 4096;
+    private static final int ROWS = 32;
+    private static final int SIZE = 4 + 2 + 4 * 2 + 1 + 8 + 4 + REGISTERS * 2 + 1 + STACK_SIZE * 2 + 1 + 8 + MEMORY_SIZE + ROWS * 8;
+
+    private static final byte RANDOM_NOT_SAVED = 0;
+    private static final byte RANDOM_XORSHIFT = 1;
+
+    private SaveState() {
+    }
+
+    public static byte[] save(Chip chip) {
+        byte[] state = new byte[SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(state);
+
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putChar(chip.getProgramCounter());
+        buffer.putChar(chip.getIndex());
+        buffer.putChar(chip.getDelayTimer());
+        buffer.putChar(chip.getSoundTimer());
+        buffer.put((byte) chip.getKeyWaitRegister());
+        buffer.putLong(chip.getCycleCount());
+        buffer.putInt(chip.getCyclesUntilTimerTick());
+        for (char register : chip.getRegisters()) {
+            buffer.putChar(register);
+        }
+
+        Stack stack = chip.getStack();
+        buffer.put(stack.getSp());
+        for (char address : stack.getEntries()) {
+            buffer.putChar(address);
+        }
+
+        // Only our own generator has a state we know how to capture
+        if (chip.getRandomSource() instanceof XorShiftRandom random) {
+            buffer.put(RANDOM_XORSHIFT);
+            buffer.putLong(random.getState());
+        } else {
+            buffer.put(RANDOM_NOT_SAVED);
+            buffer.putLong(0);
+        }
+
+        chip.getMemory().copyTo(state, buffer.position());
+        buffer.position(buffer.position() + MEMORY_SIZE);
+
+        long[] rows = new long[ROWS];
+        chip.getDisplay().copyRows(rows);
+        for (long row : rows) {
+            buffer.putLong(row);
+        }
+        return state;
+    }
+
+    public static void restore(Chip chip, byte[] state) {
+        if (state.length != SIZE) throw new IllegalArgumentException("Save state has " + state.length + " bytes, expected " + SIZE);
+        ByteBuffer buffer = ByteBuffer.wrap(state);
+
+        if (buffer.getInt() != MAGIC) throw new IllegalArgumentException("Not a save state");
+        short version = buffer.getShort();
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported save state version " + version);
+
+        // Everything is read and checked before the chip is touched, a bad state leaves it as it was
+        char pc = buffer.getChar();
+        char index = buffer.getChar();
+        char delayTimer = buffer.getChar();
+        char soundTimer = buffer.getChar();
+        byte keyWaitRegister = buffer.get();
+        long cycleCount = buffer.getLong();
+        int cyclesUntilTimerTick = buffer.getInt();
+        char[] registers = new char[REGISTERS];
+        for (int i = 0; i < REGISTERS; i++) {
+            registers[i] = buffer.getChar();
+        }
+
+        byte sp = buffer.get();
+        char[] entries = new char[STACK_SIZE];
+        for (int i = 0; i < STACK_SIZE; i++) {
+            entries[i] = buffer.getChar();
+        }
+
+        byte randomKind = buffer.get();
+        long randomState = buffer.getLong();
+        if (randomKind != RANDOM_NOT_SAVED && randomKind != RANDOM_XORSHIFT)
+            throw new IllegalArgumentException("Unknown random source kind " + randomKind);
+        if (randomKind == RANDOM_XORSHIFT && randomState == 0)
+            throw new IllegalArgumentException("xorshift state can't be zero");
+
+        int memoryOffset = buffer.position();
+        buffer.position(memoryOffset + MEMORY_SIZE);
+        long[] rows = new long[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = buffer.getLong();
+        }
+
+        checkMachineState(pc, keyWaitRegister, cycleCount, cyclesUntilTimerTick, sp);
+
+        chip.setProgramCounter(pc);
+        chip.setIndex(index);
+        chip.setDelayTimer(delayTimer);
+        chip.setSoundTimer(soundTimer);
+        chip.setKeyWaitRegister(keyWaitRegister);
+        chip.setCycleCount(cycleCount);
+        chip.setCyclesUntilTimerTick(cyclesUntilTimerTick);
+        System.arraycopy(registers, 0, chip.getRegisters(), 0, REGISTERS);
+        chip.getStack().setSp(sp);
+        System.arraycopy(entries, 0, chip.getStack().getEntries(), 0, STACK_SIZE);
+        if (randomKind == RANDOM_XORSHIFT) chip.setRandomSource(restoreRandom(chip.getRandomSource(), randomState));
+        chip.getMemory().copyFrom(state, memoryOffset);
+        chip.getDisplay().restoreRows(rows);
+    }
+
+    // The fields the next cycle would trip over, shared with LockstepEngine.load
+    static void checkMachineState(char pc, int keyWaitRegister, long cycleCount, int cyclesUntilTimerTick, int sp) {
+        if (pc > MEMORY_SIZE - 2)
+            throw new IllegalArgumentException(String.format("Program counter %04X is outside memory", (int) pc));
+        if (keyWaitRegister < -1 || keyWaitRegister >= REGISTERS)
+            throw new IllegalArgumentException("Key wait register " + keyWaitRegister + " is out of range");
+        if (cycleCount < 0) throw new IllegalArgumentException("Cycle count " + cycleCount + " is negative");
+        if (cyclesUntilTimerTick <= 0)
+            throw new IllegalArgumentException("Cycles until the timer tick must be positive, was " + cyclesUntilTimerTick);
+        if (sp < -1 || sp >= STACK_SIZE) throw new IllegalArgumentException("Stack pointer " + sp + " is out of range");
+    }
+
+    private static RandomSource restoreRandom(RandomSource current, long state) {
+        // Reuse the chip's generator when we can so nobody holding on to it is surprised
+        XorShiftRandom random = current instanceof XorShiftRandom xorShift ? xorShift : new XorShiftRandom();
+        random.setState(state);
+        return random;
+    }
+}
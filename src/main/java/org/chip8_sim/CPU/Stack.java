@@ -19,4 +19,9 @@ public class Stack {
     public char getAddress() {
         return stack[sp--];
     }
+
+    // The backing array, for save states
+    char[] getEntries() {
+        return stack;
+    }
 }
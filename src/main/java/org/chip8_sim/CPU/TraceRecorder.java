@@ -0,0 +1,150 @@
+package org.chip8_sim.CPU;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Keeps the last cycles a Chip executed in a preallocated ring of primitive arrays, one slot per cycle,
+// so recording allocates nothing. Attach it with Chip.setTraceRecorder, a Chip without one pays a null check.
+// Dump layout (big endian), version 1:
+//   int    magic 'C8TR'
+//   short  version
+//   long   number of the first dumped cycle, counted from when recording started
+//   int    number of entries, oldest first, each:
+//     char   pc of the instruction
+//     char   instruction word
+//     byte   first register the instruction changed, -1 for none
+//     char   value of that register afterwards
+//     char   index afterwards
+public final class TraceRecorder {
+    public static final int MAGIC = 0x43385452;
+    public static final short VERSION = 1;
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final char[] pcs;
+    private final char[] instructions;
+    private final byte[] registers;
+    private final char[] values;
+    private final char[] indexes;
+    private final int mask;
+    private long recorded = 0;
+    private Path dumpPath = null; // where the trace goes when the Chip halts or crashes, null to keep it in memory
+
+    public TraceRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TraceRecorder(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        // Rounded up to a power of two so the slot is a mask away
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+
+        pcs = new char[size];
+        instructions = new char[size];
+        registers = new byte[size];
+        values = new char[size];
+        indexes = new char[size];
+        mask = size - 1;
+    }
+
+    void record(char pc, char instruction, int register, char value, char index) {
+        int slot = (int) recorded & mask;
+        pcs[slot] = pc;
+        instructions[slot] = instruction;
+        registers[slot] = (byte) register;
+        values[slot] = value;
+        indexes[slot] = index;
+        recorded++;
+    }
+
+    // Called by the Chip on an unsupported instruction or an exception out of a handler
+    void dumpOnFault() {
+        if (dumpPath == null) return;
+        try {
+            dump(dumpPath);
+        } catch (IOException e) {
+            System.err.println("Could not write trace to " + dumpPath + ": " + e.getMessage());
+        }
+    }
+
+    public void dump(Path path) throws IOException {
+        dump(path, size());
+    }
+
+    public void dump(Path path, int lastCycles) throws IOException {
+        int count = Math.min(Math.max(lastCycles, 0), size());
+        long first = recorded - count;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(first);
+            out.writeInt(count);
+            for (long cycle = first; cycle < recorded; cycle++) {
+                int slot = (int) cycle & mask;
+                out.writeChar(pcs[slot]);
+                out.writeChar(instructions[slot]);
+                out.writeByte(registers[slot]);
+                out.writeChar(values[slot]);
+                out.writeChar(indexes[slot]);
+            }
+        }
+    }
+
+    public void clear() {
+        recorded = 0;
+    }
+
+    // Cycles recorded since the start, including the ones the ring has already overwritten
+    public long getRecorded() {
+        return recorded;
+    }
+
+    // Cycles still held by the ring
+    public int size() {
+        return (int) Math.min(recorded, pcs.length);
+    }
+
+    public int capacity() {
+        return pcs.length;
+    }
+
+    public Path getDumpPath() {
+        return dumpPath;
+    }
+
+    public void setDumpPath(Path dumpPath) {
+        this.dumpPath = dumpPath;
+    }
+
+    // ------------------ Used for testing ------------------
+
+    // Entry 0 is the oldest cycle still held
+    public char getPc(int entry) {
+        return pcs[slotOf(entry)];
+    }
+
+    public char getInstruction(int entry) {
+        return instructions[slotOf(entry)];
+    }
+
+    public int getChangedRegister(int entry) {
+        return registers[slotOf(entry)];
+    }
+
+    public char getChangedValue(int entry) {
+        return values[slotOf(entry)];
+    }
+
+    public char getIndex(int entry) {
+        return indexes[slotOf(entry)];
+    }
+
+    private int slotOf(int entry) {
+        if (entry < 0 || entry >= size()) throw new IndexOutOfBoundsException("entry " + entry + " of " + size());
+        return (int) (recorded - size() + entry) & mask;
+    }
+}
@@ -0,0 +1,53 @@
+package org.chip8_sim.CPU;
+
+// xorshift64* generator, fast, allocation free and fully determined by its seed
+public class XorShiftRandom implements RandomSource {
+    private long state;
+
+    public XorShiftRandom(long seed) {
+        setSeed(seed);
+    }
+
+    public XorShiftRandom() {
+        this(System.nanoTime());
+    }
+
+    public void setSeed(long seed) {
+        state = stateFor(seed);
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        if (state == 0) throw new IllegalArgumentException("xorshift state can't be zero");
+        this.state = state;
+    }
+
+    @Override
+    public int nextByte() {
+        state = next(state);
+        return output(state);
+    }
+
+    // The generator as plain functions over the state, for engines that keep the states in an array
+    static long stateFor(long seed) {
+        // The state must never be zero, mix the seed so close seeds don't give close sequences
+        long mixed = seed * 0x9E3779B97F4A7C15L;
+        mixed ^= mixed >>> 32;
+        return mixed == 0 ? 0x9E3779B97F4A7C15L : mixed;
+    }
+
+    static long next(long state) {
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        return state;
+    }
+
+    static int output(long state) {
+        // The high bits of the multiplied state are the best mixed
+        return (int) ((state * 0x2545F4914F6CDD1DL) >>> 56);
+    }
+}
@@ -0,0 +1,29 @@
+package org.chip8_sim.Display;
+
+import org.chip8_sim.CPU.Memory;
+
+// The display backend the CPU draws into.
+// FrameBuffer is the headless implementation, Screen is the Swing frontend on top of it.
+public interface Display {
+    boolean drawSprite(Coordinate position, char[] sprite);
+
+    // Draws the length bytes of sprite data stored at address, used by Dxyn so drawing doesn't allocate
+    boolean drawSprite(int x, int y, Memory memory, int address, int length);
+
+    void clearDisplay();
+
+    short isBitOn(short index);
+
+    // The screen as one long per row (most significant bit is x = 0), used by save states
+    void copyRows(long[] destination);
+
+    void restoreRows(long[] source);
+
+    // The current screen is a complete frame, a renderer may show it now
+    default void publishFrame() {
+    }
+
+    int getVideoHeight();
+
+    int getVideoWidth();
+}
@@ -0,0 +1,20 @@
+package org.chip8_sim.Display;
+
+// One completed screen handed from the CPU to the renderer, see FrameBuffer.publishFrame.
+// Whoever holds a Frame owns it, the other side never touches it until it's swapped back.
+public final class Frame {
+    final long[] rows;
+    long sequence; // Frames published before this one, 0 for the blank screen nobody published
+
+    public Frame(int videoHeight) {
+        this.rows = new long[videoHeight];
+    }
+
+    public long getRow(int y) {
+        return rows[y];
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+}
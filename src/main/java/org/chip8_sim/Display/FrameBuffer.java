@@ -0,0 +1,138 @@
+package org.chip8_sim.Display;
+
+import org.chip8_sim.CPU.Memory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Headless framebuffer, holds the pixels without any window attached to it.
+// Does not touch AWT so a Chip can be created on machines without a display server.
+public class FrameBuffer implements Display {
+    private final int videoHeight = 32;
+    private final int videoWidth = 64;
+    // One long per row, one bit per pixel. The most significant bit is the leftmost pixel (x = 0)
+    private final long[] rows = new long[videoHeight];
+    // Triple buffered handoff to the renderer. The CPU copies a finished screen into back and swaps it
+    // with ready, the renderer swaps its front with ready. Neither side waits or locks, and a frame is
+    // never written while the other side can see it.
+    private final AtomicReference<Frame> ready = new AtomicReference<>(new Frame(videoHeight));
+    private Frame back = new Frame(videoHeight); // CPU side only
+    private long published = 0;
+
+    @Override
+    public boolean drawSprite(Coordinate position, char[] sprite) {
+        int x = position.getX() % videoWidth;
+        int y = position.getY();
+
+        long collided = 0;
+        for (int i = 0; i < sprite.length && y + i <= 31; i++) {
+            collided |= drawRow(x, y + i, sprite[i]);
+        }
+        return collided != 0;
+    }
+
+    @Override
+    public boolean drawSprite(int x, int y, Memory memory, int address, int length) {
+        x %= videoWidth;
+
+        long collided = 0;
+        for (int i = 0; i < length && y + i <= 31; i++) {
+            collided |= drawRow(x, y + i, memory.readByte(address + i));
+        }
+        return collided != 0;
+    }
+
+    private long drawRow(int x, int row, int spriteByte) {
+        // The sprite byte is moved to the top of the row word, then rotated into place,
+        // so pixels running past the right edge wrap around to the left for free
+        long mask = Long.rotateRight((long) (spriteByte & 0x00FF) << 56, x);
+        long collided = rows[row] & mask;
+        rows[row] ^= mask;
+        return collided;
+    }
+
+    @Override
+    public void clearDisplay() {
+        Arrays.fill(rows, 0);
+    }
+
+    @Override
+    public void copyRows(long[] destination) {
+        System.arraycopy(rows, 0, destination, 0, videoHeight);
+    }
+
+    @Override
+    public void restoreRows(long[] source) {
+        System.arraycopy(source, 0, rows, 0, videoHeight);
+    }
+
+    // Called by the CPU thread once per frame
+    @Override
+    public void publishFrame() {
+        System.arraycopy(rows, 0, back.rows, 0, videoHeight);
+        back.sequence = ++published;
+        // The swap publishes the rows, back comes back as a frame the renderer is done with or never took
+        back = ready.getAndSet(back);
+    }
+
+    // Renderer side: hands back front and returns the latest published frame, or front itself if nothing
+    // newer was published since. Once front is handed back the renderer must not read it any more.
+    public Frame swapFrame(Frame front) {
+        if (ready.get().sequence <= front.sequence) return front;
+        return ready.getAndSet(front);
+    }
+
+    // FNV-1a over the rows, lets runs compare their final screens without keeping them around
+    public long hash() {
+        long hash = 0xcbf29ce484222325L;
+        for (long row : rows) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                hash ^= (row >>> shift) & 0xFF;
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    public boolean isPixelOn(int x, int y) {
+        return ((rows[y] << x) & 0x8000000000000000L) != 0;
+    }
+
+    public long getRow(int y) {
+        return rows[y];
+    }
+
+    public short posToIndex(Coordinate position) {
+        int x = position.getX() % 64;
+        int y = position.getY();
+
+        if(x < 0 || y > 31 || y < 0) throw new IndexOutOfBoundsException("Coordinates" + position + " are invalid");
+
+        return (short) ((y * videoWidth) + x);
+    }
+
+    public Coordinate indexToPos(char index) {
+        if(index < 0 || index >= (videoWidth * videoHeight))
+            throw new IndexOutOfBoundsException("Index " + index + " is out of range");
+
+        char X = (char) (index % 64);
+        char Y = (char) (index / 64);
+
+        return new Coordinate(X, Y);
+    }
+
+    @Override
+    public short isBitOn(short index) {
+        return (short) (isPixelOn(index % videoWidth, index / videoWidth) ? 1 : 0);
+    }
+
+    @Override
+    public int getVideoHeight() {
+        return videoHeight;
+    }
+
+    @Override
+    public int getVideoWidth() {
+        return videoWidth;
+    }
+}
@@ -1,139 +1,107 @@
 package org.chip8_sim.Display;
 
-import org.chip8_sim.Keyboard.Keypad;
+import org.chip8_sim.Keyboard.KeypadListener;
+import org.chip8_sim.Metrics.Metrics;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import javax.swing.*;
 
-public class Screen extends JFrame{
-    private final int videoHeight = 32;
-    private final int videoWidth = 64;
-    private final short[] screen = new short[videoHeight * videoWidth];
-    private final int size;
+// Swing frontend over a FrameBuffer. Rendering is decoupled from emulation, a Swing timer
+// presents the latest frame the CPU published at most 60 times per second and only redraws the rows that changed.
+public class Screen extends JFrame {
+    private static final int FRAME_INTERVAL_MS = (int) Math.ceil(1000.0 / 60);
+
+    private final FrameBuffer frameBuffer;
     private final int multiplier;
+    private final int videoWidth;
+    private final int videoHeight;
+    private Frame front;           // The latest frame taken from the framebuffer
+    private final long[] shown;    // Rows currently in the image
+    // One image pixel per CHIP-8 pixel, scaled up when it's blitted
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final Timer presentTimer;
+    private final Metrics metrics;
+
+    private static final int spriteColor = 0xFFFFFF;
+    private static final int backgroundColor = 0x000000;
+
+    public Screen(FrameBuffer frameBuffer, KeypadListener keypadListener) {
+        this(frameBuffer, keypadListener, Metrics.NONE);
+    }
 
-    private static final Color spriteColor = new Color(255, 255, 255);
-    private static final Color backgroundColor = new Color(0, 0, 0);
+    public Screen(FrameBuffer frameBuffer, KeypadListener keypadListener, Metrics metrics) {
+        this.frameBuffer = frameBuffer;
+        this.metrics = metrics;
+        this.videoWidth = frameBuffer.getVideoWidth();
+        this.videoHeight = frameBuffer.getVideoHeight();
+        this.front = new Frame(videoHeight);
+        this.shown = new long[videoHeight];
+        this.image = new BufferedImage(videoWidth, videoHeight, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
 
-    public Screen(Keypad keypad) {
         // Setting the key listener for the key inputs
-        this.addKeyListener(keypad);
+        this.addKeyListener(keypadListener);
 
         this.multiplier = 15;
-        this.size = multiplier - multiplier/15;
 
         this.setName("Chip8 Emulator");
         this.setTitle("Chip8 Emulator");
 
         // Setting up the window for display
-        this.setBackground(backgroundColor);
+        this.setBackground(new Color(backgroundColor));
         this.setResizable(false);
         this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         this.setLocationRelativeTo(null);
-        this.setBackground(backgroundColor);
         this.setVisible(true);
 
-        int width = 64 * multiplier + this.getInsets().left + this.getInsets().right;
-        int height = 32 * multiplier + this.getInsets().top + this.getInsets().bottom;
+        int width = videoWidth * multiplier + this.getInsets().left + this.getInsets().right;
+        int height = videoHeight * multiplier + this.getInsets().top + this.getInsets().bottom;
         this.setSize(width, height);
-    }
-
-    @Override
-    public void paint(Graphics graphics) {
-        Graphics2D graphics2D = (Graphics2D) graphics;
-
-        for (char i = 0; i < videoWidth; i++) {
-            for (char j = 0; j < videoHeight; j++) {
-                Coordinate position = new Coordinate(i, j);
-                if(isBitOn(position) == 1) drawAt(position, graphics2D);
-                else drawBackground(position, graphics2D);
-            }
-        }
-    }
 
-    public boolean drawSprite(Coordinate position, char[] sprite) {
-        boolean collision = false;
-        for (int i = 0; i < sprite.length; i++) {
-            int y = position.getY() + i;
-            if (y > 31 || y < 0) break;
-            collision = drawByte(new Coordinate(position.getX(), (char) y), sprite[i]);
-        }
-        repaint();
-        return collision;
+        this.presentTimer = new Timer(FRAME_INTERVAL_MS, e -> present());
+        this.presentTimer.start();
     }
 
-    private boolean drawByte(Coordinate position, char sprite) {
-        sprite = (char) (sprite & 0x00FF);
-
-        boolean collision = false;
-        for (short i = 0; i < 8; i++) {
-            Coordinate tempPosition = new Coordinate(position.getX(), position.getY());
-            tempPosition.setX((char) (position.getX() + i));
-            short index = posToIndex(tempPosition);
-            char currentBit = (char) ((sprite >> (7-i)) & 0x0001);
-            short displayBit = screen[index];
-
-            // Checking for collision
-            if (displayBit == 1 && currentBit == 1) collision = true;
-            screen[index] = (short) (currentBit ^ displayBit);
+    private void present() {
+        Frame latest = frameBuffer.swapFrame(front);
+        if (latest == front) return;
+        front = latest;
+
+        // Frames in between may have been skipped, so changed rows are found against what is on screen
+        int dirty = 0;
+        for (int y = 0; y < videoHeight; y++) {
+            long row = front.getRow(y);
+            if (row == shown[y]) continue;
+            shown[y] = row;
+            dirty |= 1 << y;
+            int offset = y * videoWidth;
+            for (int x = 0; x < videoWidth; x++) {
+                pixels[offset + x] = (row << x) < 0 ? spriteColor : backgroundColor;
+            }
         }
-        return collision;
-    }
 
-    public void clearDisplay() {
-        for (short i = 0; i < videoHeight * videoWidth; i++) {
-            screen[i] = 0;
-        }
-    }
+        metrics.framePresented();
+        if (dirty == 0) return;
 
-    private void drawBackground(Coordinate position, Graphics2D graphics2D) {
-        graphics2D.setPaint(backgroundColor);
-        graphics2D.fillRect(position.getX() * multiplier + this.getInsets().left,
-                            position.getY() * multiplier + this.getInsets().top,
-                            size, size);
+        // Only the band between the first and last changed row needs repainting
+        int top = Integer.numberOfTrailingZeros(dirty);
+        int bottom = 31 - Integer.numberOfLeadingZeros(dirty);
+        repaint(this.getInsets().left, top * multiplier + this.getInsets().top,
+                videoWidth * multiplier, (bottom - top + 1) * multiplier);
     }
 
-    private void drawAt(Coordinate position, Graphics2D graphics2D) {
-        graphics2D.setPaint(spriteColor);
-        graphics2D.fillRect(position.getX() * multiplier + this.getInsets().left,
-                            position.getY() * multiplier + this.getInsets().top,
-                            size, size);
-    }
-
-    private short isBitOn(Coordinate position) {
-        return screen[posToIndex(position)];
-    }
-
-    public short posToIndex(Coordinate position) {
-        int x = position.getX() % 64;
-        int y = position.getY();
-
-        if(x < 0 || y > 31 || y < 0) throw new IndexOutOfBoundsException("Coordinates" + position + " are invalid");
-
-        return (short) ((y * videoWidth) + x);
-    }
-
-    public Coordinate indexToPos(char index) {
-        if(index < 0 || index >= (videoWidth * videoHeight))
-            throw new IndexOutOfBoundsException("Index " + index + " is out of range");
-
-        char X = (char) (index % 64);
-        char Y = (char) (index / 64);
-
-        return new Coordinate(X, Y);
-    }
-
-    // ------------------ Used for testing ------------------
-
-    public short isBitOn(short index) {
-        return screen[index];
-    }
-
-    public int getVideoHeight() {
-        return videoHeight;
+    @Override
+    public void paint(Graphics graphics) {
+        graphics.drawImage(image, this.getInsets().left, this.getInsets().top,
+                           videoWidth * multiplier, videoHeight * multiplier, null);
     }
 
-    public int getVideoWidth() {
-        return videoWidth;
+    @Override
+    public void dispose() {
+        presentTimer.stop();
+        super.dispose();
     }
 }
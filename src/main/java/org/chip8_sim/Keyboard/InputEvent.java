@@ -0,0 +1,36 @@
+package org.chip8_sim.Keyboard;
+
+// One key going down or up at a given CPU cycle
+public class InputEvent {
+    private final long cycle;
+    private final char key;
+    private final boolean pressed;
+
+    public InputEvent(long cycle, char key, boolean pressed) {
+        this.cycle = cycle;
+        this.key = key;
+        this.pressed = pressed;
+    }
+
+    public long getCycle() {
+        return cycle;
+    }
+
+    public char getKey() {
+        return key;
+    }
+
+    public boolean isPressed() {
+        return pressed;
+    }
+
+    public void applyTo(Keypad keypad) {
+        if (pressed) keypad.press(key);
+        else keypad.release(key);
+    }
+
+    @Override
+    public String toString() {
+        return "cycle " + cycle + (pressed ? " down " : " up ") + Integer.toHexString(key).toUpperCase();
+    }
+}
@@ -0,0 +1,67 @@
+package org.chip8_sim.Keyboard;
+
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.ExecutionReport;
+
+import java.util.List;
+
+// Drives a Chip with an InputScript. The Chip runs uncapped between events and every event
+// lands on exactly the cycle it was scripted for, so a replay always ends in the same state.
+public class InputReplay {
+    private final Chip chip;
+    private final List<InputEvent> events;
+    private final int cyclesPerTimerTick;
+    private int next = 0;
+
+    public InputReplay(Chip chip, InputScript script, int cyclesPerTimerTick) {
+        this.chip = chip;
+        this.events = script.getEvents();
+        this.cyclesPerTimerTick = cyclesPerTimerTick;
+        skipPast(chip.getCycleCount());
+    }
+
+    public InputReplay(Chip chip, InputScript script) {
+        this(chip, script, Chip.DEFAULT_CYCLES_PER_TIMER_TICK);
+    }
+
+    public ExecutionReport run(long instructionBudget) {
+        long end = chip.getCycleCount() + instructionBudget;
+        long instructions = 0;
+        long timerTicks = 0;
+        long elapsedNanos = 0;
+        boolean halted = false;
+
+        while (chip.getCycleCount() < end) {
+            applyDueEvents();
+
+            long until = next < events.size() ? Math.min(end, events.get(next).getCycle()) : end;
+            ExecutionReport slice = chip.runUncapped(until - chip.getCycleCount(), cyclesPerTimerTick);
+            instructions += slice.getInstructions();
+            timerTicks += slice.getTimerTicks();
+            elapsedNanos += slice.getElapsedNanos();
+            if (slice.isHalted()) {
+                halted = true;
+                break;
+            }
+        }
+        // Events due on the very last cycle still count
+        if (!halted) applyDueEvents();
+
+        return new ExecutionReport(instructions, timerTicks, elapsedNanos, halted);
+    }
+
+    public boolean isFinished() {
+        return next >= events.size();
+    }
+
+    private void applyDueEvents() {
+        long cycle = chip.getCycleCount();
+        while (next < events.size() && events.get(next).getCycle() <= cycle) {
+            events.get(next++).applyTo(chip.getKeypad());
+        }
+    }
+
+    private void skipPast(long cycle) {
+        while (next < events.size() && events.get(next).getCycle() < cycle) next++;
+    }
+}
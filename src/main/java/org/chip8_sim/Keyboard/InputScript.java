@@ -0,0 +1,86 @@
+package org.chip8_sim.Keyboard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// A list of key events timed against the CPU, one event per line:
+//
+//   # Start the game, then hold left for half a second
+//   frame 120 down 5
+//   frame 125 up 5
+//   cycle 3000 down 4
+//   frame 180 up 4
+//
+// Frames are 60Hz timer ticks and are turned into cycles with the cycles-per-tick the script is built with.
+// Keys are hex digits 0-F. Events at the same cycle are applied in the order they are written.
+public class InputScript {
+    private final List<InputEvent> events;
+
+    public InputScript(List<InputEvent> events) {
+        List<InputEvent> sorted = new ArrayList<>(events);
+        sorted.sort(Comparator.comparingLong(InputEvent::getCycle));
+        this.events = Collections.unmodifiableList(sorted);
+    }
+
+    public List<InputEvent> getEvents() {
+        return events;
+    }
+
+    public static InputScript load(Path path, int cyclesPerTimerTick) throws IOException {
+        return parse(Files.readAllLines(path), cyclesPerTimerTick);
+    }
+
+    public static InputScript parse(String script, int cyclesPerTimerTick) {
+        return parse(script.lines().toList(), cyclesPerTimerTick);
+    }
+
+    public static InputScript parse(List<String> lines, int cyclesPerTimerTick) {
+        List<InputEvent> events = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            events.add(parseLine(line, i + 1, cyclesPerTimerTick));
+        }
+        return new InputScript(events);
+    }
+
+    private static InputEvent parseLine(String line, int lineNumber, int cyclesPerTimerTick) {
+        String[] parts = line.split("\\s+");
+        if (parts.length != 4) throw error(lineNumber, "expected '<frame|cycle> <time> <down|up> <key>'");
+
+        long time;
+        try {
+            time = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            throw error(lineNumber, "bad time '" + parts[1] + "'");
+        }
+        if (time < 0) throw error(lineNumber, "time can't be negative");
+
+        long cycle = switch (parts[0]) {
+            case "frame" -> time * cyclesPerTimerTick;
+            case "cycle" -> time;
+            default -> throw error(lineNumber, "unknown unit '" + parts[0] + "'");
+        };
+
+        boolean pressed = switch (parts[2]) {
+            case "down" -> true;
+            case "up" -> false;
+            default -> throw error(lineNumber, "expected down or up, got '" + parts[2] + "'");
+        };
+
+        if (parts[3].length() != 1 || Character.digit(parts[3].charAt(0), 16) < 0)
+            throw error(lineNumber, "bad key '" + parts[3] + "'");
+        char key = (char) Character.digit(parts[3].charAt(0), 16);
+
+        return new InputEvent(cycle, key, pressed);
+    }
+
+    private static IllegalArgumentException error(int lineNumber, String message) {
+        return new IllegalArgumentException("Input script line " + lineNumber + ": " + message);
+    }
+}
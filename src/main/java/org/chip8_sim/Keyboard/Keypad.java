@@ -1,50 +1,118 @@
 package org.chip8_sim.Keyboard;
 
-import java.awt.event.KeyEvent;
-import java.awt.event.KeyListener;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class Keypad implements KeyListener {
-    private char pressedKey = 0xFFFF;
+// Holds the state of the hex keypad, input frontends (KeypadListener) feed it key presses.
+// Bit n of the mask is set while key n is held, so any number of keys can be down at once.
+// Input threads write and the CPU thread reads, everything goes through one atomic word so the CPU
+// sees every change on its next read. How long that took is measured, from the key event to the
+// first read that saw it.
+public class Keypad {
+    public static final char NO_KEY = 0xFFFF;
 
+    private static final int KEY_BITS = 16;
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+    private static final long STAMP_MASK = (1L << (64 - KEY_BITS)) - 1;
+
+    // Keys held in the low 16 bits, the time of the last edge (a press or release that changed something) above,
+    // in nanoseconds since the keypad was created and 0 before the first edge. The time and the keys are
+    // swapped in together, so a reader always gets the stamp of the edge it sees. 48 bits wrap after 78 hours,
+    // latencies are taken modulo that.
+    private final AtomicLong state = new AtomicLong();
+    private final AtomicLong pressEdges = new AtomicLong();
+    private final AtomicLong releaseEdges = new AtomicLong();
+    private final long epochNanos = System.nanoTime();
+
+    // Latency from an edge to the first read that saw it, only written by the reading thread
+    private long observedStamp = 0;
+    private volatile long observations = 0;
+    private volatile long lastLatencyNanos = 0;
+    private volatile long maxLatencyNanos = 0;
+    private volatile long totalLatencyNanos = 0;
+
+    public boolean isPressed(int key) {
+        return key <= 0xF && (observe() & (1 << key)) != 0;
+    }
+
+    public int getPressedKeys() {
+        return (int) (state.get() & KEY_MASK);
+    }
+
+    // Lowest key currently held, or NO_KEY
     public char getPressedKey() {
-        return pressedKey;
-    }
-
-    @Override
-    public void keyTyped(KeyEvent e) {
-        keyPressed(e);
-    }
-
-    @Override
-    public void keyPressed(KeyEvent e) {
-       pressedKey = convertToHex(e);
-    }
-
-    @Override
-    public void keyReleased(KeyEvent e) {
-        if (convertToHex(e) == pressedKey)
-            pressedKey = 0xFFFF;
-    }
-
-    private char convertToHex(KeyEvent e) {
-        return switch (e.getKeyChar()) {
-            case '1' -> 0x1;
-            case '2' -> 0x2;
-            case '3' -> 0x3;
-            case '4' -> 0xC;
-            case 'q' -> 0x4;
-            case 'w' -> 0x5;
-            case 'e' -> 0x6;
-            case 'r' -> 0xD;
-            case 'a' -> 0x7;
-            case 's' -> 0x8;
-            case 'd' -> 0x9;
-            case 'f' -> 0xE;
-            case 'z' -> 0xA;
-            case 'x' -> 0x0;
-            case 'c' -> 0xB;
-            case 'v' -> 0xF;
-            default -> 0xFFFF;
-        };
+        int keys = observe();
+        return keys == 0 ? NO_KEY : (char) Integer.numberOfTrailingZeros(keys);
+    }
+
+    public void press(char key) {
+        if (key > 0xF) return;
+        if (update(1 << key, true)) pressEdges.incrementAndGet();
+    }
+
+    public void release(char key) {
+        if (key > 0xF) return;
+        if (update(1 << key, false)) releaseEdges.incrementAndGet();
+    }
+
+    // False when the key already was in that state, auto repeat and keyTyped after keyPressed aren't edges
+    private boolean update(int bit, boolean down) {
+        while (true) {
+            long current = state.get();
+            long keys = current & KEY_MASK;
+            long updated = down ? keys | bit : keys & ~bit;
+            if (updated == keys) return false;
+
+            // Every edge gets a later stamp than the one before, so readers can tell two quick edges apart
+            long previous = current >>> KEY_BITS;
+            long stamp = Math.max(sinceEpoch(), previous + 1) & STAMP_MASK;
+            if (stamp == 0) stamp = 1;
+            if (state.compareAndSet(current, stamp << KEY_BITS | updated)) return true;
+        }
+    }
+
+    private long sinceEpoch() {
+        return System.nanoTime() - epochNanos;
+    }
+
+    // The CPU side read, notes the latency the first time a new edge is seen
+    private int observe() {
+        long current = state.get();
+        long stamp = current >>> KEY_BITS;
+        if (stamp != observedStamp) {
+            observedStamp = stamp;
+            // The clock is read after the state, so it's never earlier than the stamp the state carries
+            long latency = Math.max(0, ((sinceEpoch() - stamp) << KEY_BITS) >> KEY_BITS);
+            lastLatencyNanos = latency;
+            totalLatencyNanos += latency;
+            if (latency > maxLatencyNanos) maxLatencyNanos = latency;
+            observations++;
+        }
+        return (int) (current & KEY_MASK);
+    }
+
+    public long getPressEdges() {
+        return pressEdges.get();
+    }
+
+    public long getReleaseEdges() {
+        return releaseEdges.get();
+    }
+
+    // Edges the CPU has seen, several edges between two reads are seen as one
+    public long getObservedEdges() {
+        return observations;
+    }
+
+    public long getLastInputLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    public long getMaxInputLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    public double getMeanInputLatencyNanos() {
+        long seen = observations;
+        return seen == 0 ? 0 : (double) totalLatencyNanos / seen;
     }
 }
@@ -0,0 +1,50 @@
+package org.chip8_sim.Keyboard;
+
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+
+// Swing key listener, maps the keyboard to the hex keypad
+public class KeypadListener implements KeyListener {
+    private final Keypad keypad;
+
+    public KeypadListener(Keypad keypad) {
+        this.keypad = keypad;
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {
+        keyPressed(e);
+    }
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        keypad.press(convertToHex(e));
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        keypad.release(convertToHex(e));
+    }
+
+    private char convertToHex(KeyEvent e) {
+        return switch (e.getKeyChar()) {
+            case '1' -> 0x1;
+            case '2' -> 0x2;
+            case '3' -> 0x3;
+            case '4' -> 0xC;
+            case 'q' -> 0x4;
+            case 'w' -> 0x5;
+            case 'e' -> 0x6;
+            case 'r' -> 0xD;
+            case 'a' -> 0x7;
+            case 's' -> 0x8;
+            case 'd' -> 0x9;
+            case 'f' -> 0xE;
+            case 'z' -> 0xA;
+            case 'x' -> 0x0;
+            case 'c' -> 0xB;
+            case 'v' -> 0xF;
+            default -> 0xFFFF;
+        };
+    }
+}
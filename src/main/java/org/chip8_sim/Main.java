@@ -2,31 +2,70 @@ package org.chip8_sim;
 
 import org.chip8_sim.CPU.Chip;
 import org.chip8_sim.CPU.Memory;
+import org.chip8_sim.Display.FrameBuffer;
+import org.chip8_sim.Display.Screen;
+import org.chip8_sim.Keyboard.Keypad;
+import org.chip8_sim.Keyboard.KeypadListener;
+import org.chip8_sim.Metrics.EmulatorMetrics;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Paths;
+import javax.management.JMException;
 
 public class Main {
     public static void main(String[] args) {
+        // --turbo [instructions] runs the ROM headless and uncapped, then prints the throughput
+        if (args.length > 0 && args[0].equals("--turbo")) {
+            long budget = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+            Chip chip = new Chip();
+            EmulatorMetrics metrics = new EmulatorMetrics();
+            chip.setMetrics(metrics);
+            loadROM(chip.getMemory());
+            System.out.println(chip.runUncapped(budget));
+            System.out.println(metrics);
+            return;
+        }
+
+        // Counters for the run loop and the window, readable from jconsole while the emulator runs
+        EmulatorMetrics metrics = new EmulatorMetrics();
+        try {
+            metrics.register("main");
+        } catch (JMException e) {
+            System.out.println("Metrics are not available over JMX: " + e.getMessage());
+        }
+
+        // The Swing window is just a frontend over the framebuffer the Chip draws into
+        Keypad keypad = new Keypad();
+        FrameBuffer frameBuffer = new FrameBuffer();
+        new Screen(frameBuffer, new KeypadListener(keypad), metrics);
+        Chip chip = new Chip(frameBuffer, keypad);
+        chip.setMetrics(metrics);
+        loadROM(chip.getMemory());
 
-        Chip chip = new Chip();
-        Memory memory = chip.getMemory();
+        chip.run();
+        // The loop only returns on an instruction it can't run
+        System.out.println("Stopped, " + metrics);
+    }
+
+    private static void loadROM(Memory memory) {
         try {
             URL res = Main.class.getClassLoader().getResource("test_opcode.ch8");
             File ROM;
             if (res != null) {
                 ROM = Paths.get(res.toURI()).toFile();
-            } else return;
+            } else {
+                System.out.println("No game was found");
+                System.exit(1);
+                return;
+            }
             String fileName = ROM.getAbsolutePath();
             memory.loadROM(fileName);
         } catch (IOException | URISyntaxException e) {
             System.out.println("No game was found");
             System.exit(1);
         }
-
-        chip.run();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,156 @@
+package org.chip8_sim.Metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Counters and gauges behind Metrics. The CPU thread and the render timer write, anyone may read,
+// so everything is atomic or volatile and nothing is locked.
+public class EmulatorMetrics implements Metrics, MetricsMXBean {
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong framesPresented = new AtomicLong();
+    private final AtomicLong unsupportedOpcodes = new AtomicLong();
+    private volatile String lastUnsupportedOpcode = "";
+
+    // Timer jitter, written by the CPU thread and cleared by reset() from whoever calls it
+    private final AtomicLong timerTicks = new AtomicLong();
+    private final AtomicLong totalJitterNanos = new AtomicLong();
+    private final AtomicLong maxJitterNanos = new AtomicLong();
+
+    // Instruction rate, recomputed by the CPU thread once a window has passed
+    private long windowStart = System.nanoTime();
+    private long windowCycles = 0;
+    private volatile boolean windowReset = false; // set by reset(), the CPU thread restarts the window
+    private volatile double instructionsPerSecond = 0;
+
+    @Override
+    public void cyclesExecuted(long executed) {
+        cycles.addAndGet(executed);
+
+        long now = System.nanoTime();
+        if (windowReset) {
+            // These cycles may have run before the reset, the new window starts after them
+            windowReset = false;
+            windowStart = now;
+            windowCycles = 0;
+            instructionsPerSecond = 0;
+            return;
+        }
+        windowCycles += executed;
+        long elapsed = now - windowStart;
+        if (elapsed >= RATE_WINDOW_NANOS) {
+            instructionsPerSecond = windowCycles * 1e9 / elapsed;
+            windowStart = now;
+            windowCycles = 0;
+        }
+    }
+
+    @Override
+    public void overrun() {
+        overruns.incrementAndGet();
+    }
+
+    @Override
+    public void timerTick(long intervalNanos, long expectedNanos) {
+        long jitter = Math.abs(intervalNanos - expectedNanos);
+        totalJitterNanos.addAndGet(jitter);
+        maxJitterNanos.accumulateAndGet(jitter, Math::max);
+        timerTicks.incrementAndGet();
+    }
+
+    @Override
+    public void framePresented() {
+        framesPresented.incrementAndGet();
+    }
+
+    @Override
+    public void unsupportedOpcode(int pc, char instruction) {
+        unsupportedOpcodes.incrementAndGet();
+        lastUnsupportedOpcode = String.format("%03x: %04x", pc, (int) instruction);
+    }
+
+    @Override
+    public long getCyclesExecuted() {
+        return cycles.get();
+    }
+
+    @Override
+    public long getOverruns() {
+        return overruns.get();
+    }
+
+    @Override
+    public double getInstructionsPerSecond() {
+        return instructionsPerSecond;
+    }
+
+    @Override
+    public long getTimerTicks() {
+        return timerTicks.get();
+    }
+
+    @Override
+    public double getMeanTimerJitterNanos() {
+        long ticks = timerTicks.get();
+        return ticks == 0 ? 0 : (double) totalJitterNanos.get() / ticks;
+    }
+
+    @Override
+    public long getMaxTimerJitterNanos() {
+        return maxJitterNanos.get();
+    }
+
+    @Override
+    public long getFramesPresented() {
+        return framesPresented.get();
+    }
+
+    @Override
+    public long getUnsupportedOpcodes() {
+        return unsupportedOpcodes.get();
+    }
+
+    @Override
+    public String getLastUnsupportedOpcode() {
+        return lastUnsupportedOpcode;
+    }
+
+    @Override
+    public void reset() {
+        cycles.set(0);
+        overruns.set(0);
+        framesPresented.set(0);
+        unsupportedOpcodes.set(0);
+        lastUnsupportedOpcode = "";
+        timerTicks.set(0);
+        totalJitterNanos.set(0);
+        maxJitterNanos.set(0);
+        instructionsPerSecond = 0;
+        windowReset = true;
+    }
+
+    // Publishes these metrics on the platform MBean server as org.chip8_sim:type=Emulator,name=<name>
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("org.chip8_sim:type=Emulator,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    public void unregister(ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d cycles, %.0f instructions/s, %d overruns, %d timer ticks (jitter mean %.3f ms, max %.3f ms), %d frames, %d unsupported %s",
+                getCyclesExecuted(), getInstructionsPerSecond(), getOverruns(), getTimerTicks(),
+                getMeanTimerJitterNanos() / 1e6, getMaxTimerJitterNanos() / 1e6, getFramesPresented(),
+                getUnsupportedOpcodes(), getLastUnsupportedOpcode());
+    }
+}
@@ -0,0 +1,26 @@
+package org.chip8_sim.Metrics;
+
+// What the emulator reports while it runs. Implementations have to be cheap, these are called from
+// the run loop and the render timer instead of printing.
+public interface Metrics {
+    // Discards everything, the default for a Chip nobody is watching
+    Metrics NONE = new Metrics() {
+    };
+
+    default void cyclesExecuted(long cycles) {
+    }
+
+    // A frame's batch finished after its deadline, so the next frame starts late (see FrameScheduler)
+    default void overrun() {
+    }
+
+    // A 60Hz timer update happened intervalNanos after the previous one
+    default void timerTick(long intervalNanos, long expectedNanos) {
+    }
+
+    default void framePresented() {
+    }
+
+    default void unsupportedOpcode(int pc, char instruction) {
+    }
+}
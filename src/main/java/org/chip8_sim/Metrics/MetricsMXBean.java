@@ -0,0 +1,27 @@
+package org.chip8_sim.Metrics;
+
+// Read side of EmulatorMetrics, polled directly or over JMX
+public interface MetricsMXBean {
+    long getCyclesExecuted();
+
+    long getOverruns();
+
+    // Instructions per second over the last completed one second window
+    double getInstructionsPerSecond();
+
+    long getTimerTicks();
+
+    // Mean and worst distance between a timer update and when it was due
+    double getMeanTimerJitterNanos();
+
+    long getMaxTimerJitterNanos();
+
+    long getFramesPresented();
+
+    long getUnsupportedOpcodes();
+
+    // The last instruction that wasn't supported as "pc: word", empty if there was none
+    String getLastUnsupportedOpcode();
+
+    void reset();
+}
@@ -0,0 +1,191 @@
+package org.chip8_sim.Runner;
+
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.ExecutionProfile;
+import org.chip8_sim.CPU.ExecutionReport;
+import org.chip8_sim.CPU.TraceRecorder;
+import org.chip8_sim.CPU.XorShiftRandom;
+import org.chip8_sim.Display.FrameBuffer;
+import org.chip8_sim.Keyboard.InputReplay;
+import org.chip8_sim.Keyboard.InputScript;
+import org.chip8_sim.Keyboard.Keypad;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+// Runs a corpus of ROMs headless, each in its own Chip, spread over a work-stealing pool.
+// Every Chip gets the same random seed and, optionally, the same input script, so a ROM always ends in the same state.
+//   BatchRunner [--instructions N | --frames N] [--threads N] [--seed N] [--input script] [--jit] [--trace dir] [--profile N] <rom or directory>...
+public class BatchRunner {
+    public static final long DEFAULT_SEED = 0xC8;
+
+    private final long instructionBudget;
+    private final int cyclesPerTimerTick;
+    private final int parallelism;
+    private final long seed;
+    private final InputScript input;
+    private boolean jitEnabled = false;
+    private Path traceDirectory = null; // ROMs that halt or crash leave <rom>.trace here
+    private boolean profiling = false;
+
+    public BatchRunner(long instructionBudget, int cyclesPerTimerTick, int parallelism, long seed, InputScript input) {
+        this.instructionBudget = instructionBudget;
+        this.cyclesPerTimerTick = cyclesPerTimerTick;
+        this.parallelism = parallelism;
+        this.seed = seed;
+        this.input = input;
+    }
+
+    public BatchRunner(long instructionBudget) {
+        this(instructionBudget, Chip.DEFAULT_CYCLES_PER_TIMER_TICK, Runtime.getRuntime().availableProcessors(), DEFAULT_SEED,
+             new InputScript(List.of()));
+    }
+
+    public void setJitEnabled(boolean jitEnabled) {
+        this.jitEnabled = jitEnabled;
+    }
+
+    public void setTraceDirectory(Path traceDirectory) {
+        this.traceDirectory = traceDirectory;
+    }
+
+    // Every result carries an ExecutionProfile of its run
+    public void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    public List<RomResult> run(List<Path> roms) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<RomResult>> tasks = new ArrayList<>(roms.size());
+            for (Path rom : roms) {
+                tasks.add(pool.submit(() -> runRom(rom)));
+            }
+
+            // Results come back in the order the ROMs were given
+            List<RomResult> results = new ArrayList<>(roms.size());
+            for (ForkJoinTask<RomResult> task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public RomResult runRom(Path rom) {
+        long start = System.nanoTime();
+        FrameBuffer frameBuffer = new FrameBuffer();
+        Chip chip = new Chip(frameBuffer, new Keypad());
+        chip.setRandomSource(new XorShiftRandom(seed));
+        chip.setJitEnabled(jitEnabled);
+        if (traceDirectory != null) {
+            TraceRecorder trace = new TraceRecorder();
+            trace.setDumpPath(traceDirectory.resolve(rom.getFileName() + ".trace"));
+            chip.setTraceRecorder(trace);
+        }
+        ExecutionProfile profile = profiling ? new ExecutionProfile() : null;
+        chip.setExecutionProfile(profile);
+
+        try {
+            chip.getMemory().loadROM(rom.toString());
+        } catch (IOException | RuntimeException e) {
+            return new RomResult(rom, 0, frameBuffer.hash(), HaltReason.LOAD_FAILED, String.valueOf(e.getMessage()), System.nanoTime() - start);
+        }
+
+        try {
+            ExecutionReport report = new InputReplay(chip, input, cyclesPerTimerTick).run(instructionBudget);
+            HaltReason reason;
+            if (report.isHalted()) reason = HaltReason.UNSUPPORTED_OPCODE;
+            else if (chip.isWaitingForKey()) reason = HaltReason.WAITING_FOR_KEY;
+            else reason = HaltReason.BUDGET_EXHAUSTED;
+            String detail = report.isHalted() ? String.format("pc=%03x", (int) chip.getProgramCounter() - 2) : "";
+            return new RomResult(rom, report.getInstructions(), frameBuffer.hash(), reason, detail, System.nanoTime() - start, profile);
+        } catch (RuntimeException e) {
+            return new RomResult(rom, -1, frameBuffer.hash(), HaltReason.ERROR, e.toString(), System.nanoTime() - start, profile);
+        }
+    }
+
+    // Expands directories into the .ch8 files they contain, sorted so runs are comparable
+    public static List<Path> collectRoms(List<String> arguments) throws IOException {
+        List<Path> roms = new ArrayList<>();
+        for (String argument : arguments) {
+            Path path = Paths.get(argument);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.filter(Files::isRegularFile)
+                         .filter(file -> file.getFileName().toString().toLowerCase().endsWith(".ch8"))
+                         .sorted()
+                         .forEach(roms::add);
+                }
+            } else {
+                roms.add(path);
+            }
+        }
+        return roms;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long instructions = 1_000_000;
+        long frames = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = DEFAULT_SEED;
+        String inputPath = null;
+        boolean jit = false;
+        String tracePath = null;
+        int profileTop = -1;
+        List<String> paths = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--instructions" -> instructions = Long.parseLong(args[++i]);
+                case "--frames" -> frames = Long.parseLong(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--input" -> inputPath = args[++i];
+                case "--jit" -> jit = true;
+                case "--trace" -> tracePath = args[++i];
+                case "--profile" -> profileTop = Integer.parseInt(args[++i]);
+                default -> paths.add(args[i]);
+            }
+        }
+        if (paths.isEmpty()) {
+            System.out.println("Usage: BatchRunner [--instructions N | --frames N] [--threads N] [--seed N] [--input script] [--jit] [--trace dir] [--profile N] <rom or directory>...");
+            System.exit(2);
+        }
+
+        // A frame is one 60Hz timer tick
+        int cyclesPerTimerTick = Chip.DEFAULT_CYCLES_PER_TIMER_TICK;
+        if (frames >= 0) instructions = frames * cyclesPerTimerTick;
+
+        InputScript input = inputPath == null ? new InputScript(List.of()) : InputScript.load(Paths.get(inputPath), cyclesPerTimerTick);
+        List<Path> roms = collectRoms(paths);
+        long start = System.nanoTime();
+        BatchRunner runner = new BatchRunner(instructions, cyclesPerTimerTick, threads, seed, input);
+        runner.setJitEnabled(jit);
+        if (tracePath != null) runner.setTraceDirectory(Files.createDirectories(Paths.get(tracePath)));
+        runner.setProfiling(profileTop >= 0);
+        List<RomResult> results = runner.run(roms);
+        long wallNanos = System.nanoTime() - start;
+
+        long totalInstructions = 0;
+        int failed = 0;
+        for (RomResult result : results) {
+            System.out.println(result);
+            if (result.getProfile() != null) System.out.print(result.getProfile().report(profileTop));
+            totalInstructions += Math.max(0, result.getInstructions());
+            if (result.getHaltReason() == HaltReason.ERROR || result.getHaltReason() == HaltReason.LOAD_FAILED) failed++;
+        }
+        System.out.printf("%d ROMs, %d instructions in %.3f ms on %d threads, %d failed%n",
+                results.size(), totalInstructions, wallNanos / 1_000_000.0, threads, failed);
+
+        if (failed > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,9 @@
+package org.chip8_sim.Runner;
+
+public enum HaltReason {
+    BUDGET_EXHAUSTED,   // Ran the whole instruction budget
+    WAITING_FOR_KEY,    // Ran the whole budget but ended blocked on Fx0A, nobody is pressing keys in a batch run
+    UNSUPPORTED_OPCODE, // Hit an instruction the CPU can't decode
+    ERROR,              // The ROM crashed the emulator (stack overflow, memory out of range...)
+    LOAD_FAILED         // The ROM couldn't be read
+}
@@ -0,0 +1,69 @@
+package org.chip8_sim.Runner;
+
+import org.chip8_sim.CPU.ExecutionProfile;
+
+import java.nio.file.Path;
+
+// Outcome of running one ROM in the batch runner
+public class RomResult {
+    private final Path rom;
+    private final long instructions;
+    private final long frameBufferHash;
+    private final HaltReason haltReason;
+    private final String detail;
+    private final long wallNanos;
+    private final ExecutionProfile profile;
+
+    public RomResult(Path rom, long instructions, long frameBufferHash, HaltReason haltReason, String detail, long wallNanos) {
+        this(rom, instructions, frameBufferHash, haltReason, detail, wallNanos, null);
+    }
+
+    public RomResult(Path rom, long instructions, long frameBufferHash, HaltReason haltReason, String detail, long wallNanos,
+                     ExecutionProfile profile) {
+        this.rom = rom;
+        this.instructions = instructions;
+        this.frameBufferHash = frameBufferHash;
+        this.haltReason = haltReason;
+        this.detail = detail;
+        this.wallNanos = wallNanos;
+        this.profile = profile;
+    }
+
+    public Path getRom() {
+        return rom;
+    }
+
+    // -1 if the run crashed part way through
+    public long getInstructions() {
+        return instructions;
+    }
+
+    public long getFrameBufferHash() {
+        return frameBufferHash;
+    }
+
+    public HaltReason getHaltReason() {
+        return haltReason;
+    }
+
+    // The exception for ERROR, its message for LOAD_FAILED, "pc=<hex address>" of the instruction that
+    // couldn't be decoded for UNSUPPORTED_OPCODE, empty otherwise
+    public String getDetail() {
+        return detail;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    // Null unless the runner was profiling
+    public ExecutionProfile getProfile() {
+        return profile;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %12d  %016x  %-18s %10.3f ms %s",
+                rom.getFileName(), instructions, frameBufferHash, haltReason, wallNanos / 1_000_000.0, detail);
+    }
+}
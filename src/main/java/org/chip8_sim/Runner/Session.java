@@ -0,0 +1,218 @@
+package org.chip8_sim.Runner;
+
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.ExecutionReport;
+import org.chip8_sim.CPU.FrameScheduler;
+import org.chip8_sim.Display.FrameBuffer;
+import org.chip8_sim.Streaming.FrameSink;
+import org.chip8_sim.Streaming.FrameStreamer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// One headless Chip hosted by a SessionHost. The session runs on its carrier one frame at a time,
+// the control methods only post requests and are safe from any thread. The stats are written by the
+// carrier and can be polled from anywhere.
+public class Session {
+    // Further behind than this and the session's schedule restarts from now instead of bursting to catch up
+    private static final int MAX_FRAMES_BEHIND = 5;
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / FrameScheduler.FRAME_HZ;
+    // A frame starting later than this after its deadline counts as late
+    private static final long LATE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long id;
+    private final Chip chip;
+    private final int clockHz;
+    private final SessionHost.Carrier carrier;
+
+    // Changed by both sides, so only ever with compareAndSet
+    private final AtomicReference<SessionState> state = new AtomicReference<>(SessionState.RUNNING);
+    private volatile boolean idle = true; // not on the carrier's schedule, nothing touches the Chip
+    private volatile Throwable failure = null;
+    // Null while nobody watches, the carrier drops it when its sink fails or the session ends
+    private final AtomicReference<FrameStreamer> streamer = new AtomicReference<>();
+
+    // Stats, written by the carrier only
+    private volatile long frames = 0;
+    private volatile long instructions = 0;
+    private volatile long lateFrames = 0;
+    private volatile long maxLatenessNanos = 0;
+
+    // Schedule, carrier only
+    long deadline;
+    long scheduleStart;
+    long scheduleFrame;
+    boolean scheduled = false;
+
+    Session(long id, Chip chip, int clockHz, SessionHost.Carrier carrier) {
+        if (clockHz <= 0) throw new IllegalArgumentException("clockHz must be positive");
+        this.id = id;
+        this.chip = chip;
+        this.clockHz = clockHz;
+        this.carrier = carrier;
+    }
+
+    public void pause() {
+        state.compareAndSet(SessionState.RUNNING, SessionState.PAUSED);
+    }
+
+    public void resume() {
+        if (state.compareAndSet(SessionState.PAUSED, SessionState.RUNNING)) carrier.wake(this);
+    }
+
+    public void stop() {
+        if (state.compareAndSet(SessionState.RUNNING, SessionState.STOPPED)
+                || state.compareAndSet(SessionState.PAUSED, SessionState.STOPPED)) {
+            carrier.wake(this);
+        }
+    }
+
+    // Sends every frame from now on to sink, until the sink fails or the session ends. Safe from any thread.
+    // The session owns the sink from here on and closes it, also when it turns the stream down.
+    public void stream(FrameSink sink) throws IOException {
+        if (!(chip.getDisplay() instanceof FrameBuffer frameBuffer))
+            throw new IllegalStateException("Only sessions drawing to a FrameBuffer can be streamed");
+        if (isFinished()) {
+            sink.close();
+            throw new IllegalStateException("Session " + id + " has already ended");
+        }
+        FrameStreamer created = new FrameStreamer(frameBuffer, sink);
+        if (!streamer.compareAndSet(null, created)) {
+            created.close();
+            throw new IllegalStateException("Session " + id + " is already streaming");
+        }
+        // The session may have ended while the stream was being set up, the carrier wouldn't close it then
+        if (isFinished()) endStream();
+    }
+
+    private boolean isFinished() {
+        SessionState current = state.get();
+        return current == SessionState.STOPPED || current == SessionState.HALTED || current == SessionState.FAILED;
+    }
+
+    public boolean isStreaming() {
+        return streamer.get() != null;
+    }
+
+    // Called by the carrier when the session is due, false once it should leave the schedule
+    boolean runFrame(long now) {
+        if (state.get() != SessionState.RUNNING) return false;
+
+        long lateness = now - deadline;
+        if (lateness > maxLatenessNanos && frames > 0) maxLatenessNanos = lateness;
+        if (lateness > LATE_NANOS && frames > 0) lateFrames++;
+
+        try {
+            ExecutionReport report = chip.runFrame(FrameScheduler.instructionsForFrame(frames, clockHz));
+            instructions += report.getInstructions();
+            frames++;
+            sendFrame();
+            if (report.isHalted()) {
+                finish(SessionState.HALTED);
+                return false;
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            finish(SessionState.FAILED);
+            return false;
+        }
+
+        // Deadlines count from the start of the schedule, so oversleeping doesn't add up
+        scheduleFrame++;
+        deadline = scheduleStart + scheduleFrame * FRAME_NANOS;
+        if (now - deadline > MAX_FRAMES_BEHIND * FRAME_NANOS) restartSchedule(now);
+        return true;
+    }
+
+    // The machine can't go on. That wins over a pause that came in during the frame, resuming would run
+    // past the fault, but a stop that came in stays a stop
+    private void finish(SessionState outcome) {
+        SessionState current;
+        do {
+            current = state.get();
+            if (current == SessionState.STOPPED) break;
+        } while (!state.compareAndSet(current, outcome));
+        endStream();
+    }
+
+    void restartSchedule(long now) {
+        scheduleStart = now;
+        scheduleFrame = 0;
+        deadline = now;
+    }
+
+    private void sendFrame() {
+        FrameStreamer current = streamer.get();
+        if (current == null) return;
+        try {
+            current.poll();
+        } catch (IOException e) {
+            // The viewer went away, the session carries on without it
+            endStream();
+        }
+    }
+
+    void endStream() {
+        FrameStreamer current = streamer.getAndSet(null);
+        if (current == null) return;
+        try {
+            current.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    void setIdle(boolean idle) {
+        this.idle = idle;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public SessionState getState() {
+        return state.get();
+    }
+
+    // True while the carrier isn't going to touch the Chip, after pause() or stop() this turns true
+    // once the frame in progress has finished
+    public boolean isIdle() {
+        return idle;
+    }
+
+    // Only safe to look at while the session is idle
+    public Chip getChip() {
+        return chip;
+    }
+
+    public int getClockHz() {
+        return clockHz;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getInstructions() {
+        return instructions;
+    }
+
+    // Frames that started more than a millisecond after their deadline
+    public long getLateFrames() {
+        return lateFrames;
+    }
+
+    public long getMaxLatenessNanos() {
+        return maxLatenessNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("session %d %-8s %10d frames %12d instructions %6d late (max %.3f ms)",
+                id, state, frames, instructions, lateFrames, maxLatenessNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,231 @@
+package org.chip8_sim.Runner;
+
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.FrameScheduler;
+import org.chip8_sim.CPU.XorShiftRandom;
+import org.chip8_sim.Streaming.OutputStreamSink;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Hosts many headless sessions in one JVM on a few carrier threads. Java 17 has no virtual threads, so
+// every session is a cooperative task: its carrier runs one frame of it when the frame is due and moves
+// on to the next session, and parks until the earliest deadline when nothing is due. Each carrier owns
+// its sessions and their schedule, the only thing shared with other threads is an inbox of wakeups.
+//   SessionHost [--sessions N] [--carriers N] [--clock HZ] [--seconds N] [--jit]
+//               [--record DIR] [--spectate HOST:PORT] <rom>
+// --record writes every session's frames to DIR/session-N.c8fs, --spectate streams session 0 to a
+// StreamViewer listening on HOST:PORT.
+public class SessionHost implements AutoCloseable {
+    private final Carrier[] carriers;
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    public SessionHost(int carrierThreads) {
+        if (carrierThreads <= 0) throw new IllegalArgumentException("carrierThreads must be positive");
+        carriers = new Carrier[carrierThreads];
+        for (int i = 0; i < carriers.length; i++) {
+            carriers[i] = new Carrier("chip8-carrier-" + i);
+            carriers[i].thread.start();
+        }
+    }
+
+    public SessionHost() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // The Chip should be ready to go (ROM loaded), from here on only its carrier touches it
+    public Session start(Chip chip, int clockHz) {
+        long id = nextId.getAndIncrement();
+        Carrier carrier = carriers[(int) (id % carriers.length)];
+        Session session = new Session(id, chip, clockHz, carrier);
+        sessions.add(session);
+        carrier.wake(session);
+        return session;
+    }
+
+    public Session start(Chip chip) {
+        return start(chip, FrameScheduler.DEFAULT_CLOCK_HZ);
+    }
+
+    public List<Session> getSessions() {
+        return new ArrayList<>(sessions);
+    }
+
+    // Drops finished sessions from the host, returns how many were removed
+    public int removeFinished() {
+        List<Session> finished = new ArrayList<>();
+        for (Session session : sessions) {
+            SessionState state = session.getState();
+            if (session.isIdle() && state != SessionState.RUNNING && state != SessionState.PAUSED) finished.add(session);
+        }
+        sessions.removeAll(finished);
+        return finished.size();
+    }
+
+    public int getCarrierCount() {
+        return carriers.length;
+    }
+
+    // Stops every session and the carriers, waits for the carriers to finish their current frame
+    @Override
+    public void close() throws InterruptedException {
+        for (Session session : sessions) session.stop();
+        for (Carrier carrier : carriers) carrier.shutdown();
+        for (Carrier carrier : carriers) carrier.thread.join();
+        // No carrier runs any more, close every stream that is still open so recordings are complete
+        for (Session session : sessions) {
+            if (session.getState() == SessionState.STOPPED) session.endStream();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sessionCount = 1_000;
+        int carrierCount = Runtime.getRuntime().availableProcessors();
+        int clockHz = FrameScheduler.DEFAULT_CLOCK_HZ;
+        int seconds = 10;
+        boolean jit = false;
+        Path recordDirectory = null;
+        String spectator = null;
+        String rom = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sessions" -> sessionCount = Integer.parseInt(args[++i]);
+                case "--carriers" -> carrierCount = Integer.parseInt(args[++i]);
+                case "--clock" -> clockHz = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--jit" -> jit = true;
+                case "--record" -> recordDirectory = Paths.get(args[++i]);
+                case "--spectate" -> spectator = args[++i];
+                default -> rom = args[i];
+            }
+        }
+        if (rom == null) {
+            System.out.println("Usage: SessionHost [--sessions N] [--carriers N] [--clock HZ] [--seconds N] [--jit]"
+                    + " [--record DIR] [--spectate HOST:PORT] <rom>");
+            System.exit(2);
+        }
+
+        if (recordDirectory != null) Files.createDirectories(recordDirectory);
+
+        try (SessionHost host = new SessionHost(carrierCount)) {
+            for (int i = 0; i < sessionCount; i++) {
+                Chip chip = new Chip();
+                chip.setRandomSource(new XorShiftRandom(BatchRunner.DEFAULT_SEED + i));
+                chip.setJitEnabled(jit);
+                chip.getMemory().loadROM(rom);
+                Session session = host.start(chip, clockHz);
+                if (recordDirectory != null) {
+                    session.stream(OutputStreamSink.file(recordDirectory.resolve("session-" + session.getId() + ".c8fs")));
+                } else if (spectator != null && i == 0) {
+                    int colon = spectator.lastIndexOf(':');
+                    session.stream(OutputStreamSink.connect(spectator.substring(0, colon),
+                            Integer.parseInt(spectator.substring(colon + 1))));
+                }
+            }
+
+            for (int second = 1; second <= seconds; second++) {
+                Thread.sleep(1_000);
+                long frames = 0, instructions = 0, late = 0, maxLateness = 0, running = 0;
+                for (Session session : host.getSessions()) {
+                    frames += session.getFrames();
+                    instructions += session.getInstructions();
+                    late += session.getLateFrames();
+                    maxLateness = Math.max(maxLateness, session.getMaxLatenessNanos());
+                    if (session.getState() == SessionState.RUNNING) running++;
+                }
+                System.out.printf("%3d s  %d running  %d frames  %d instructions  %d late frames (max %.3f ms)%n",
+                        second, running, frames, instructions, late, maxLateness / 1_000_000.0);
+            }
+        }
+    }
+
+    static final class Carrier implements Runnable {
+        private final Thread thread;
+        private final Queue<Session> inbox = new ConcurrentLinkedQueue<>();
+        // Sessions by next deadline, only touched by this carrier
+        private final PriorityQueue<Session> schedule = new PriorityQueue<>(Comparator.comparingLong(s -> s.deadline));
+        private volatile boolean running = true;
+
+        Carrier(String name) {
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        void wake(Session session) {
+            inbox.add(session);
+            LockSupport.unpark(thread);
+        }
+
+        void shutdown() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                drainInbox();
+
+                Session next = schedule.peek();
+                if (next == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                long now = System.nanoTime();
+                long wait = next.deadline - now;
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                    continue;
+                }
+
+                schedule.poll();
+                if (next.runFrame(now)) schedule.add(next);
+                else unschedule(next);
+            }
+
+            // Wakeups posted just before shutdown (stopping a paused or never scheduled session) still count
+            drainInbox();
+            for (Session session : schedule) unschedule(session);
+            schedule.clear();
+        }
+
+        private void drainInbox() {
+            Session session;
+            while ((session = inbox.poll()) != null) {
+                if (session.getState() == SessionState.RUNNING) {
+                    if (!session.scheduled) {
+                        session.scheduled = true;
+                        session.setIdle(false);
+                        session.restartSchedule(System.nanoTime());
+                        schedule.add(session);
+                    }
+                } else if (session.scheduled) {
+                    // Paused or stopped, leaves the schedule now instead of at its next deadline
+                    schedule.remove(session);
+                    unschedule(session);
+                } else if (session.getState() == SessionState.STOPPED) {
+                    // Stopped while paused, nothing else is going to close its stream
+                    session.endStream();
+                }
+            }
+        }
+
+        private void unschedule(Session session) {
+            if (session.getState() == SessionState.STOPPED) session.endStream();
+            session.scheduled = false;
+            session.setIdle(true);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.chip8_sim.Runner;
+
+public enum SessionState {
+    RUNNING,    // Scheduled, runs a frame whenever one is due
+    PAUSED,     // Keeps its machine state, resume() picks up where it left off
+    STOPPED,    // Stopped for good, the Chip can be inspected once the session is idle
+    HALTED,     // Hit an instruction the CPU can't decode
+    FAILED      // A frame threw, see Session.getFailure()
+}
@@ -0,0 +1,61 @@
+package org.chip8_sim.Runner;
+
+import org.chip8_sim.Streaming.FrameDecoder;
+import org.chip8_sim.Streaming.FrameEncoder;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+// Shows a frame stream as text, from a recording or live from a session streaming to this port:
+//   StreamViewer <file.c8fs>
+//   StreamViewer --listen PORT
+public class StreamViewer {
+    private StreamViewer() {
+    }
+
+    public static String render(FrameDecoder decoder) {
+        StringBuilder text = new StringBuilder((FrameEncoder.WIDTH + 1) * FrameEncoder.HEIGHT);
+        for (int y = 0; y < FrameEncoder.HEIGHT; y++) {
+            for (int x = 0; x < FrameEncoder.WIDTH; x++) {
+                text.append(decoder.isPixelOn(x, y) ? '#' : '.');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private static void play(InputStream in, PrintStream out, boolean live) throws IOException {
+        FrameDecoder decoder = new FrameDecoder();
+        decoder.readHeader(in);
+        while (decoder.readFrame(in)) {
+            // Live frames redraw in place, a recording is printed frame after frame
+            if (live) out.print("\033[H\033[2J");
+            out.println("frame " + decoder.getSequence());
+            out.print(render(decoder));
+            out.flush();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(args[0])))) {
+                play(in, System.out, false);
+            }
+        } else if (args.length == 2 && args[0].equals("--listen")) {
+            try (ServerSocket server = new ServerSocket(Integer.parseInt(args[1]));
+                 Socket socket = server.accept();
+                 InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                play(in, System.out, true);
+            }
+        } else {
+            System.out.println("Usage: StreamViewer <file.c8fs> | StreamViewer --listen PORT");
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.chip8_sim.Runner;
+
+import org.chip8_sim.CPU.Disassembler;
+import org.chip8_sim.CPU.TraceRecorder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Renders a trace written by TraceRecorder as disassembly, one cycle per line:
+//   cycle  pc   word  mnemonic        changed register  index
+//   TraceDump <trace file>...
+public class TraceDump {
+    private TraceDump() {
+    }
+
+    public static List<String> render(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != TraceRecorder.MAGIC) throw new IOException(path + " is not a trace");
+            short version = in.readShort();
+            if (version != TraceRecorder.VERSION) throw new IOException("Unsupported trace version " + version);
+
+            long first = in.readLong();
+            int count = in.readInt();
+            List<String> lines = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                char pc = in.readChar();
+                char instruction = in.readChar();
+                byte register = in.readByte();
+                char value = in.readChar();
+                char index = in.readChar();
+
+                String change = register < 0 ? "" : String.format("V%X=%02X", (int) register, (int) value);
+                lines.add(String.format("%10d  %03X  %04X  %-16s%-8s I=%03X",
+                        first + i, (int) pc, (int) instruction, Disassembler.disassemble(instruction), change, (int) index));
+            }
+            return lines;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: TraceDump <trace file>...");
+            System.exit(2);
+        }
+        for (String arg : args) {
+            for (String line : render(Paths.get(arg))) {
+                System.out.println(line);
+            }
+        }
+    }
+}
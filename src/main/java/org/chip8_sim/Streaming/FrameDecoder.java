@@ -0,0 +1,89 @@
+package org.chip8_sim.Streaming;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// Rebuilds the frames of a stream written by FrameEncoder, one record at a time
+public final class FrameDecoder {
+    private final long[] rows = new long[FrameEncoder.HEIGHT];
+    private long sequence = 0;
+    private boolean synced = false; // false until the first keyframe, deltas before it have nothing to apply to
+
+    public void readHeader(InputStream in) throws IOException {
+        int magic = (readByte(in) << 24) | (readByte(in) << 16) | (readByte(in) << 8) | readByte(in);
+        if (magic != FrameEncoder.MAGIC) throw new IOException("Not a frame stream");
+        int version = (readByte(in) << 8) | readByte(in);
+        if (version != FrameEncoder.VERSION) throw new IOException("Unsupported frame stream version " + version);
+        int width = readByte(in);
+        int height = readByte(in);
+        if (width != FrameEncoder.WIDTH || height != FrameEncoder.HEIGHT)
+            throw new IOException("Unsupported frame size " + width + "x" + height);
+    }
+
+    // Applies the next record, false at the end of the stream
+    public boolean readFrame(InputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) return false;
+
+        long gap = 0;
+        int shift = 0;
+        for (int b = first; ; b = readByte(in)) {
+            gap |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+            shift += 7;
+            if (shift > 63) throw new IOException("Malformed frame record");
+        }
+
+        int count = readByte(in);
+        boolean keyframe = (count & FrameEncoder.KEYFRAME) != 0;
+        count &= ~FrameEncoder.KEYFRAME;
+        if (count > FrameEncoder.HEIGHT) throw new IOException("Malformed frame record");
+        if (keyframe) {
+            Arrays.fill(rows, 0);
+            synced = true;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int y = readByte(in);
+            if (y >= FrameEncoder.HEIGHT) throw new IOException("Row " + y + " is off the screen");
+            int present = readByte(in);
+            long mask = 0;
+            for (int b = 0; b < 8; b++) {
+                if ((present & (0x80 >>> b)) != 0) mask |= (long) readByte(in) << (56 - 8 * b);
+            }
+            rows[y] ^= mask;
+        }
+        sequence += gap;
+        return true;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException("Frame stream ends mid record");
+        return b;
+    }
+
+    public long getRow(int y) {
+        return rows[y];
+    }
+
+    public void copyRows(long[] destination) {
+        System.arraycopy(rows, 0, destination, 0, rows.length);
+    }
+
+    public boolean isPixelOn(int x, int y) {
+        return ((rows[y] << x) & 0x8000000000000000L) != 0;
+    }
+
+    // The publishing sequence of the current frame, counted from the first record this decoder read
+    public long getSequence() {
+        return sequence;
+    }
+
+    // False while only deltas were read, the rows are then relative to an unknown screen
+    public boolean isSynced() {
+        return synced;
+    }
+}
@@ -0,0 +1,108 @@
+package org.chip8_sim.Streaming;
+
+import org.chip8_sim.Display.Frame;
+
+// Turns published frames into a compact stream of deltas. Layout (big endian), version 1:
+//   int    magic 'C8FS'
+//   short  version
+//   byte   width, height
+// followed by one record per frame that differs from the one before it:
+//   varint frames since the previous record (frames that changed nothing are left out)
+//   byte   number of changed rows, the top bit set for a keyframe
+//   per changed row:
+//     byte   y
+//     byte   which bytes of the row mask are non zero, bit 7 for the leftmost byte
+//     byte   the non zero bytes of the mask, leftmost first
+// The row mask is the XOR against the previous frame, or the row itself in a keyframe. Instead of run
+// length coding, unchanged rows are left out and each row's zero bytes are dropped through the byte bitmap.
+// That is fixed size, cheap to decode and as short as RLE for the one or two bytes a sprite usually touches.
+// Sprites touch a few bytes of a few rows, so a typical record is a handful of bytes and an idle screen costs nothing.
+public final class FrameEncoder {
+    public static final int MAGIC = 0x43384653;
+    public static final short VERSION = 1;
+    public static final int WIDTH = 64;
+    public static final int HEIGHT = 32;
+
+    static final int KEYFRAME = 0x80;
+    // Longest varint, the count, and every row with all eight bytes
+    static final int MAX_RECORD = 10 + 1 + HEIGHT * (2 + 8);
+
+    private final int keyframeInterval;
+    private final long[] previous = new long[HEIGHT];
+    private final byte[] record = new byte[MAX_RECORD];
+    private long lastSequence = 0;
+    private long recordsSinceKeyframe = -1; // -1 until the first keyframe
+
+    // A keyframe every keyframeInterval records so viewers can join or resync midway, 0 for only the first
+    public FrameEncoder(int keyframeInterval) {
+        if (keyframeInterval < 0) throw new IllegalArgumentException("keyframeInterval can't be negative");
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    public FrameEncoder() {
+        this(0);
+    }
+
+    public static byte[] header() {
+        return new byte[]{
+                (byte) (MAGIC >>> 24), (byte) (MAGIC >>> 16), (byte) (MAGIC >>> 8), (byte) MAGIC,
+                (byte) (VERSION >>> 8), (byte) VERSION,
+                (byte) WIDTH, (byte) HEIGHT
+        };
+    }
+
+    // Encodes frame into getRecord(), returns the record's length or 0 when the frame changed nothing
+    public int encode(Frame frame) {
+        if (frame.getSequence() <= lastSequence)
+            throw new IllegalArgumentException("Frame " + frame.getSequence() + " is not newer than " + lastSequence);
+
+        boolean keyframe = recordsSinceKeyframe < 0 || (keyframeInterval > 0 && recordsSinceKeyframe >= keyframeInterval);
+        int changed = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            if (frame.getRow(y) != previous[y]) changed++;
+        }
+        if (changed == 0 && !keyframe) return 0;
+
+        int length = writeVarint(frame.getSequence() - lastSequence);
+        int countAt = length++;
+        int rows = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            long row = frame.getRow(y);
+            long mask = keyframe ? row : row ^ previous[y];
+            previous[y] = row;
+            if (mask == 0) continue;
+
+            rows++;
+            record[length++] = (byte) y;
+            int maskAt = length++;
+            int present = 0;
+            for (int b = 0; b < 8; b++) {
+                byte value = (byte) (mask >>> (56 - 8 * b));
+                if (value == 0) continue;
+                present |= 0x80 >>> b;
+                record[length++] = value;
+            }
+            record[maskAt] = (byte) present;
+        }
+        record[countAt] = (byte) (keyframe ? rows | KEYFRAME : rows);
+
+        lastSequence = frame.getSequence();
+        recordsSinceKeyframe = keyframe ? 1 : recordsSinceKeyframe + 1;
+        return length;
+    }
+
+    // The last encoded record, overwritten by the next encode
+    public byte[] getRecord() {
+        return record;
+    }
+
+    private int writeVarint(long value) {
+        int length = 0;
+        while ((value & ~0x7FL) != 0) {
+            record[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        record[length++] = (byte) value;
+        return length;
+    }
+}
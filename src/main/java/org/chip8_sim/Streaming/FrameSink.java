@@ -0,0 +1,13 @@
+package org.chip8_sim.Streaming;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Where a FrameStreamer sends the encoded stream. Gets the header first, then whole records.
+public interface FrameSink extends Closeable {
+    void write(byte[] bytes, int offset, int length) throws IOException;
+
+    // Called after every record, sinks that buffer should send what they have
+    default void flush() throws IOException {
+    }
+}
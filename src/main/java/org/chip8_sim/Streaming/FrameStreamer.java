@@ -0,0 +1,69 @@
+package org.chip8_sim.Streaming;
+
+import org.chip8_sim.Display.Frame;
+import org.chip8_sim.Display.FrameBuffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Sends the frames a FrameBuffer publishes to a sink, encoded by a FrameEncoder. The streamer takes the
+// renderer's side of the framebuffer's handoff, so it replaces a Screen rather than running next to one.
+// Frames published between two polls are skipped, the next record covers their changes.
+public class FrameStreamer implements Closeable {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 600;
+
+    private final FrameBuffer frameBuffer;
+    private final FrameSink sink;
+    private final FrameEncoder encoder;
+    private Frame front = new Frame(FrameEncoder.HEIGHT);
+
+    private long records = 0;
+    private long bytes = 0;
+
+    public FrameStreamer(FrameBuffer frameBuffer, FrameSink sink, int keyframeInterval) throws IOException {
+        if (frameBuffer.getVideoWidth() != FrameEncoder.WIDTH || frameBuffer.getVideoHeight() != FrameEncoder.HEIGHT)
+            throw new IllegalArgumentException("Only " + FrameEncoder.WIDTH + "x" + FrameEncoder.HEIGHT + " screens can be streamed");
+        this.frameBuffer = frameBuffer;
+        this.sink = sink;
+        this.encoder = new FrameEncoder(keyframeInterval);
+
+        byte[] header = FrameEncoder.header();
+        sink.write(header, 0, header.length);
+        sink.flush();
+        bytes += header.length;
+    }
+
+    public FrameStreamer(FrameBuffer frameBuffer, FrameSink sink) throws IOException {
+        this(frameBuffer, sink, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    // Sends the latest published frame if there is a new one, false if nothing was published since the last poll
+    public boolean poll() throws IOException {
+        Frame latest = frameBuffer.swapFrame(front);
+        if (latest == front) return false;
+        front = latest;
+
+        int length = encoder.encode(front);
+        if (length > 0) {
+            sink.write(encoder.getRecord(), 0, length);
+            sink.flush();
+            records++;
+            bytes += length;
+        }
+        return true;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    // Header included
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        sink.close();
+    }
+}
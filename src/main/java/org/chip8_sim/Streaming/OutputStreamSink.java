@@ -0,0 +1,57 @@
+package org.chip8_sim.Streaming;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes the stream to a file, a socket or any other OutputStream
+public class OutputStreamSink implements FrameSink {
+    private final OutputStream out;
+    private final boolean flushEachRecord;
+
+    public OutputStreamSink(OutputStream out, boolean flushEachRecord) {
+        this.out = new BufferedOutputStream(out);
+        this.flushEachRecord = flushEachRecord;
+    }
+
+    // A recording, only flushed when closed
+    public static OutputStreamSink file(Path path) throws IOException {
+        return new OutputStreamSink(Files.newOutputStream(path), false);
+    }
+
+    // A live viewer, every record goes out as soon as it's written
+    public static OutputStreamSink socket(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        return new OutputStreamSink(socket.getOutputStream(), true);
+    }
+
+    public static OutputStreamSink connect(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port));
+            return socket(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (flushEachRecord) out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
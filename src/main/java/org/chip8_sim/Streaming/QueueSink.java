@@ -0,0 +1,63 @@
+package org.chip8_sim.Streaming;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Keeps the stream in memory for a consumer in the same JVM, one array per write (the header, then one
+// per record). The producer never waits: a consumer that falls capacity records behind is cut off,
+// a stream with holes in it can't be decoded anyway.
+public class QueueSink implements FrameSink {
+    private final BlockingQueue<byte[]> queue;
+    private volatile boolean closed = false;
+
+    public QueueSink(int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (closed) throw new IOException("Sink is closed");
+        if (!queue.offer(Arrays.copyOfRange(bytes, offset, offset + length))) {
+            closed = true;
+            throw new IOException("Consumer fell " + queue.size() + " records behind");
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    // Null when nothing arrived within the timeout
+    public byte[] poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public byte[] poll() {
+        return queue.poll();
+    }
+
+    // Everything queued so far as one stream, for handing to a FrameDecoder
+    public InputStream drain() {
+        ByteArrayOutputStream drained = new ByteArrayOutputStream();
+        byte[] bytes;
+        while ((bytes = queue.poll()) != null) {
+            drained.writeBytes(bytes);
+        }
+        return new ByteArrayInputStream(drained.toByteArray());
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
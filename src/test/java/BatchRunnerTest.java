@@ -0,0 +1,43 @@
+import org.chip8_sim.Runner.BatchRunner;
+import org.chip8_sim.Runner.HaltReason;
+import org.chip8_sim.Runner.RomResult;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRunnerTest {
+    private final BatchRunner runner = new BatchRunner(50_000);
+
+    @Test
+    public void batchRunTest() throws Exception {
+        List<Path> roms = BatchRunner.collectRoms(List.of(TestData.romPath("Tetris.ch8").getParent().toString()));
+        List<RomResult> results = runner.run(roms);
+
+        assertEquals(roms.size(), results.size());
+        for (int i = 0; i < roms.size(); i++) {
+            assertEquals(roms.get(i), results.get(i).getRom());
+            assertEquals(HaltReason.BUDGET_EXHAUSTED, results.get(i).getHaltReason());
+            assertEquals(50_000, results.get(i).getInstructions());
+        }
+    }
+
+    @Test
+    public void deterministicFrameBufferTest() throws Exception {
+        Path rom = TestData.romPath("test_opcode.ch8");
+
+        RomResult first = runner.runRom(rom);
+        RomResult second = runner.runRom(rom);
+
+        assertEquals(first.getFrameBufferHash(), second.getFrameBufferHash());
+    }
+
+    @Test
+    public void missingRomTest() {
+        RomResult result = runner.runRom(Paths.get("does_not_exist.ch8"));
+        assertEquals(HaltReason.LOAD_FAILED, result.getHaltReason());
+    }
+}
@@ -1,9 +1,12 @@
 import org.chip8_sim.CPU.*;
+import org.chip8_sim.Display.Display;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ChipTest {
@@ -543,6 +546,31 @@ public class ChipTest {
 
             assertTrue(testChip.getRegisters()[0x6] >= 0 && testChip.getRegisters()[0x6] <= 255);
         }
+
+        @Test
+        public void setVxToRandomANDByteSeededTest() {
+            // Two chips with the same seed draw the same bytes
+            Chip other = TestData.testChip();
+            testChip.setRandomSource(new XorShiftRandom(42));
+            other.setRandomSource(new XorShiftRandom(42));
+            testChip.decodeInstruction((char) 0xC6FF);
+            other.decodeInstruction((char) 0xC6FF);
+
+            for (int i = 0; i < 100; i++) {
+                testChip.executeInstruction(testChip.getOpCode());
+                other.executeInstruction(other.getOpCode());
+                assertEquals(other.getRegisters()[0x6], testChip.getRegisters()[0x6]);
+            }
+        }
+
+        @Test
+        public void setVxToRandomANDByteMaskTest() {
+            testChip.setRandomSource(() -> 0xFF);
+            testChip.decodeInstruction(instruction);
+            testChip.executeInstruction(opCode);
+
+            assertEquals(0x71, testChip.getRegisters()[0x6]);
+        }
     }
 
     @Nested
@@ -553,6 +581,48 @@ public class ChipTest {
             testChip.decodeInstruction(instruction);
             assertEquals(OpCodeTypes.OP_Dxyn, opCode.getOpcodeType());
         }
+
+        @Test
+        public void drawNAtVxVyExecuteTest() {
+            // Font sprite for 0 at (2, 3)
+            testChip.getRegisters()[0x1] = 2;
+            testChip.getRegisters()[0x2] = 3;
+            testChip.setIndex((char) 0);
+
+            testChip.decodeInstruction((char) 0xD125);
+            testChip.executeInstruction(opCode);
+
+            Display display = testChip.getDisplay();
+            assertEquals(1, display.isBitOn((short) (3 * 64 + 2)));
+            assertEquals(0, display.isBitOn((short) (4 * 64 + 3)));
+            assertEquals(0x0, testChip.getRegisters()[Addresses.VF_REGISTER.address]);
+
+            // Drawing it again erases it and sets VF
+            testChip.executeInstruction(opCode);
+            assertEquals(0, display.isBitOn((short) (3 * 64 + 2)));
+            assertEquals(0x1, testChip.getRegisters()[Addresses.VF_REGISTER.address]);
+        }
+
+        @Test
+        public void drawNAtVxVyAllocationTest() {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            testChip.getRegisters()[0x1] = 60;
+            testChip.getRegisters()[0x2] = 10;
+            testChip.decodeInstruction((char) 0xD12F);
+
+            // Warm up first so class loading and compilation don't show up in the count
+            for (int i = 0; i < 20_000; i++) {
+                testChip.executeInstruction(opCode);
+            }
+
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 20_000; i++) {
+                testChip.executeInstruction(opCode);
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+            assertEquals(0, allocated);
+        }
     }
 
     @Nested
@@ -563,6 +633,31 @@ public class ChipTest {
             testChip.decodeInstruction(instruction);
             assertEquals(OpCodeTypes.OP_Ex9E, opCode.getOpcodeType());
         }
+
+        @Test
+        public void skipIfVxValueIsPressedExecuteTest() {
+            // Several keys held at once, Vx's key is one of them
+            testChip.getRegisters()[0x5] = 0xA;
+            testChip.getKeypad().press((char) 0x3);
+            testChip.getKeypad().press((char) 0xA);
+
+            testChip.decodeInstruction((char) 0xE59E);
+            testChip.executeInstruction(opCode);
+
+            assertEquals(Addresses.START_ADDRESS.address + 2, testChip.getProgramCounter());
+        }
+
+        @Test
+        public void skipIfVxValueIsPressedReleasedTest() {
+            testChip.getRegisters()[0x5] = 0xA;
+            testChip.getKeypad().press((char) 0xA);
+            testChip.getKeypad().release((char) 0xA);
+
+            testChip.decodeInstruction((char) 0xE59E);
+            testChip.executeInstruction(opCode);
+
+            assertEquals(Addresses.START_ADDRESS.address, testChip.getProgramCounter());
+        }
     }
 
     @Nested
@@ -573,6 +668,17 @@ public class ChipTest {
             testChip.decodeInstruction(instruction);
             assertEquals(OpCodeTypes.OP_ExA1, opCode.getOpcodeType());
         }
+
+        @Test
+        public void skipIfVxValueIsNotPressedExecuteTest() {
+            testChip.getRegisters()[0x5] = 0xA;
+            testChip.getKeypad().press((char) 0x3);
+
+            testChip.decodeInstruction((char) 0xE5A1);
+            testChip.executeInstruction(opCode);
+
+            assertEquals(Addresses.START_ADDRESS.address + 2, testChip.getProgramCounter());
+        }
     }
 
     @Nested
@@ -603,6 +709,39 @@ public class ChipTest {
             testChip.decodeInstruction(instruction);
             assertEquals(OpCodeTypes.OP_Fx0A, opCode.getOpcodeType());
         }
+
+        @Test
+        public void storeValueOfPressedKeyHeldTest() {
+            testChip.getKeypad().press((char) 0x7);
+
+            testChip.decodeInstruction((char) 0xFC0A);
+            testChip.executeInstruction(opCode);
+
+            assertFalse(testChip.isWaitingForKey());
+            assertEquals(0x7, testChip.getRegisters()[0xC]);
+        }
+
+        @Test
+        public void storeValueOfPressedKeyWaitTest() {
+            // Fx0A followed by a jump to self
+            char[] program = {0xFC, 0x0A, 0x12, 0x02};
+            for (int i = 0; i < program.length; i++) {
+                testMemory.writeByte(Addresses.START_ADDRESS.address + i, program[i]);
+            }
+            testChip.setDelayTimer((char) 20);
+
+            // Nothing pressed, the CPU waits without blocking and the timers keep going
+            testChip.runUncapped(70, 7);
+            assertTrue(testChip.isWaitingForKey());
+            assertEquals(0x202, testChip.getProgramCounter());
+            assertEquals(10, testChip.getDelayTimer());
+
+            testChip.getKeypad().press((char) 0xE);
+            testChip.runUncapped(1, 7);
+
+            assertFalse(testChip.isWaitingForKey());
+            assertEquals(0xE, testChip.getRegisters()[0xC]);
+        }
     }
 
     @Nested
@@ -803,4 +942,87 @@ public class ChipTest {
             assertEquals(0x0D2A, testChip.getProgramCounter());
         }
     }
+
+    @Nested
+    public class decodeTableTest {
+        // Mask and value of the fixed nibbles in an opcode's name, OP_8xy4 -> 0xF00F and 0x8004.
+        // x, y, k and n are operands and match anything
+        private int[] pattern(OpCodeTypes type) {
+            String digits = type.name().substring(3);
+            int mask = 0, value = 0;
+            for (char digit : digits.toCharArray()) {
+                mask <<= 4;
+                value <<= 4;
+                if (Character.isLowerCase(digit)) continue;
+                mask |= 0xF;
+                value |= Character.digit(digit, 16);
+            }
+            // The decoder has always ignored the last nibble of 5xy0 and 9xy0
+            if (type == OpCodeTypes.OP_5xy0 || type == OpCodeTypes.OP_9xy0) mask &= 0xFFF0;
+            return new int[]{mask, value};
+        }
+
+        @Test
+        public void decodeTableMatchesOpcodePatternsTest() {
+            for (int i = 0; i <= 0xFFFF; i++) {
+                OpCodeTypes expected = OpCodeTypes.UNSUPPORTED;
+                for (OpCodeTypes type : OpCodeTypes.values()) {
+                    if (type == OpCodeTypes.UNSUPPORTED) continue;
+                    int[] pattern = pattern(type);
+                    if ((i & pattern[0]) != pattern[1]) continue;
+                    assertEquals(OpCodeTypes.UNSUPPORTED, expected, String.format("%04X matches two opcodes", i));
+                    expected = type;
+                }
+                assertEquals(expected, DecodeTable.lookup((char) i), String.format("%04X", i));
+            }
+        }
+
+        @Test
+        public void unsupportedInstructionDecodeTest() {
+            testChip.decodeInstruction((char) 0xE5FF);
+            assertEquals(OpCodeTypes.UNSUPPORTED, opCode.getOpcodeType());
+        }
+    }
+
+    @Nested
+    public class runUncappedTest {
+        @BeforeEach
+        public void loadProgram() {
+            // V0 = 0x10, delay timer = V0, then jump to self forever
+            char[] program = {0x60, 0x10, 0xF0, 0x15, 0x12, 0x04};
+            for (int i = 0; i < program.length; i++) {
+                testMemory.writeByte(Addresses.START_ADDRESS.address + i, program[i]);
+            }
+        }
+
+        @Test
+        public void runUncappedBudgetTest() {
+            ExecutionReport report = testChip.runUncapped(72, 7);
+
+            assertEquals(72, report.getInstructions());
+            assertEquals(10, report.getTimerTicks());
+            assertFalse(report.isHalted());
+            assertEquals(0x204, testChip.getProgramCounter());
+        }
+
+        @Test
+        public void runUncappedVirtualTimerTest() {
+            // The delay timer is set on the second instruction, every 7 instructions after that tick it down once
+            testChip.runUncapped(72, 7);
+
+            assertEquals(0x10 - 10, testChip.getDelayTimer());
+        }
+
+        @Test
+        public void runUncappedHaltTest() {
+            // 0xFFFF is not a valid instruction
+            testMemory.writeByte(0x204, (char) 0xFF);
+            testMemory.writeByte(0x205, (char) 0xFF);
+
+            ExecutionReport report = testChip.runUncapped(100);
+
+            assertEquals(2, report.getInstructions());
+            assertTrue(report.isHalted());
+        }
+    }
 }
@@ -1,27 +1,26 @@
-import org.chip8_sim.CPU.Chip;
 import org.chip8_sim.Display.Coordinate;
-import org.chip8_sim.Display.Screen;
+import org.chip8_sim.Display.Frame;
+import org.chip8_sim.Display.FrameBuffer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DisplayTest {
 
-    private Chip testChip;
-    private Screen testDisplay;
+    private FrameBuffer testDisplay;
 
     @BeforeEach
     public void setUp() {
-        testChip = TestData.testChip();
-        testDisplay = testChip.getScreen();
+        testDisplay = TestData.testFrameBuffer();
     }
 
     @AfterEach
     public void tearDown() {
-        testChip = null;
         testDisplay = null;
     }
 
@@ -54,7 +53,7 @@ public class DisplayTest {
 
             char index = (char) ((maxWidth * maxHeight) - 1);
 
-            Coordinate expected = new Coordinate((char) (maxHeight - 1), (char) (maxWidth - 1));
+            Coordinate expected = new Coordinate((char) (maxWidth - 1), (char) (maxHeight - 1));
             Coordinate result = testDisplay.indexToPos(index);
 
             assertEquals(expected, result);
@@ -88,7 +87,7 @@ public class DisplayTest {
             int maxHeight = testDisplay.getVideoHeight();
             int maxWidth = testDisplay.getVideoWidth();
 
-            Coordinate pos = new Coordinate((char) (maxHeight - 1), (char) (maxWidth - 1));
+            Coordinate pos = new Coordinate((char) (maxWidth - 1), (char) (maxHeight - 1));
             char expected = (char) ((maxWidth * maxHeight) - 1);
 
             assertEquals(expected, testDisplay.posToIndex(pos));
@@ -157,6 +156,31 @@ public class DisplayTest {
             assertArrayEquals(expected, display);
         }
 
+        @Test
+        public void drawSpriteCollisionTest() {
+            char[] sprite = {0xf0, 0x90, 0x90, 0x90, 0xf0};
+            testDisplay.drawSprite(new Coordinate((char) 0, (char) 0), sprite);
+
+            // Only overlaps the first row of the previous sprite, the later rows don't collide
+            char[] line = {0x80, 0x00, 0x00};
+            assertTrue(testDisplay.drawSprite(new Coordinate((char) 3, (char) 0), line));
+            assertFalse(testDisplay.isPixelOn(3, 0));
+            assertTrue(testDisplay.isPixelOn(2, 0));
+        }
+
+        @Test
+        public void drawSpriteTwiceErasesTest() {
+            char[] sprite = {0xf0, 0x90, 0x90, 0x90, 0xf0};
+            Coordinate startPosition = new Coordinate((char) 62, (char) 4);
+
+            assertFalse(testDisplay.drawSprite(startPosition, sprite));
+            assertTrue(testDisplay.drawSprite(startPosition, sprite));
+
+            for (int y = 0; y < testDisplay.getVideoHeight(); y++) {
+                assertEquals(0, testDisplay.getRow(y));
+            }
+        }
+
         @Test
         public void clearDisplayTest() {
             char[] sprite = {0xf0, 0x90, 0x90, 0x90, 0xf0};
@@ -170,4 +194,76 @@ public class DisplayTest {
             }
         }
     }
+
+    @Nested
+    public class FrameHandoffTest {
+        private final char[] sprite = {0xf0, 0x90, 0x90};
+
+        @Test
+        public void nothingPublishedTest() {
+            Frame front = new Frame(testDisplay.getVideoHeight());
+            testDisplay.drawSprite(new Coordinate((char) 8, (char) 4), sprite);
+
+            // Drawing alone doesn't hand anything to the renderer
+            assertSame(front, testDisplay.swapFrame(front));
+        }
+
+        @Test
+        public void publishedFrameTest() {
+            Frame front = new Frame(testDisplay.getVideoHeight());
+            testDisplay.drawSprite(new Coordinate((char) 8, (char) 4), sprite);
+            testDisplay.publishFrame();
+
+            Frame latest = testDisplay.swapFrame(front);
+            assertNotSame(front, latest);
+            assertEquals(1, latest.getSequence());
+            assertEquals(0xF0L << 48, latest.getRow(4));
+
+            // Drawing after the publish doesn't reach the frame the renderer holds
+            testDisplay.clearDisplay();
+            assertEquals(0xF0L << 48, latest.getRow(4));
+            assertSame(latest, testDisplay.swapFrame(latest));
+        }
+
+        @Test
+        public void latestFrameWinsTest() {
+            Frame front = new Frame(testDisplay.getVideoHeight());
+            testDisplay.drawSprite(new Coordinate((char) 0, (char) 0), sprite);
+            testDisplay.publishFrame();
+            testDisplay.clearDisplay();
+            testDisplay.publishFrame();
+
+            Frame latest = testDisplay.swapFrame(front);
+            assertEquals(2, latest.getSequence());
+            assertEquals(0, latest.getRow(0));
+        }
+
+        @Test
+        public void framesNeverTearTest() throws Exception {
+            // The CPU fills every row with the frame number, so any mix of two frames shows up as unequal rows
+            int frames = 200_000;
+            long[] rows = new long[testDisplay.getVideoHeight()];
+            Thread cpu = new Thread(() -> {
+                for (int frame = 1; frame <= frames; frame++) {
+                    Arrays.fill(rows, frame);
+                    testDisplay.restoreRows(rows);
+                    testDisplay.publishFrame();
+                }
+            });
+            cpu.start();
+
+            Frame front = new Frame(testDisplay.getVideoHeight());
+            long lastSequence = 0;
+            while (lastSequence < frames) {
+                front = testDisplay.swapFrame(front);
+                long sequence = front.getSequence();
+                assertTrue(sequence >= lastSequence);
+                for (int y = 0; y < testDisplay.getVideoHeight(); y++) {
+                    assertEquals(sequence, front.getRow(y), "row " + y + " of frame " + sequence);
+                }
+                lastSequence = sequence;
+            }
+            cpu.join();
+        }
+    }
 }
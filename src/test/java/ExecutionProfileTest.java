@@ -0,0 +1,120 @@
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.ExecutionProfile;
+import org.chip8_sim.CPU.OpCodeTypes;
+import org.chip8_sim.CPU.XorShiftRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionProfileTest {
+    // V0 = 0, then V0 += 1 and V1 ^= V0 in a loop
+    private final byte[] loop = {
+            0x60, 0x00,
+            0x70, 0x01,
+            (byte) 0x81, 0x03,
+            0x12, 0x02
+    };
+
+    private Chip testChip;
+    private ExecutionProfile profile;
+
+    @BeforeEach
+    public void setUp() {
+        testChip = TestData.testChip();
+        testChip.setRandomSource(new XorShiftRandom(5));
+        profile = new ExecutionProfile();
+        testChip.setExecutionProfile(profile);
+        testChip.getMemory().loadROM(loop);
+    }
+
+    @Test
+    public void countsOpcodesAndAddressesTest() {
+        testChip.runUncapped(1 + 3 * 100);
+
+        assertEquals(301, profile.getTotal());
+        assertEquals(1, profile.getOpcodeCount(OpCodeTypes.OP_6xkk));
+        assertEquals(100, profile.getOpcodeCount(OpCodeTypes.OP_7xkk));
+        assertEquals(100, profile.getOpcodeCount(OpCodeTypes.OP_8xy3));
+        assertEquals(100, profile.getOpcodeCount(OpCodeTypes.OP_1nnn));
+        assertEquals(1, profile.getAddressCount(0x200));
+        assertEquals(100, profile.getAddressCount(0x206));
+    }
+
+    @Test
+    public void hotAddressesTest() {
+        testChip.runUncapped(1 + 3 * 100);
+
+        assertArrayEquals(new int[] {0x202, 0x204}, profile.hotAddresses(2));
+        assertArrayEquals(new int[] {0x202, 0x204, 0x206, 0x200}, profile.hotAddresses(10));
+        assertEquals(OpCodeTypes.OP_6xkk, profile.opcodeHistogram()[3]);
+    }
+
+    @Test
+    public void compiledBlocksAreCountedTest() {
+        ExecutionProfile interpreted = profile;
+        interpreted.reset();
+        testChip.runUncapped(10_000);
+
+        Chip compiledChip = TestData.testChip();
+        compiledChip.setRandomSource(new XorShiftRandom(5));
+        ExecutionProfile compiled = new ExecutionProfile();
+        compiledChip.setExecutionProfile(compiled);
+        compiledChip.setJitEnabled(true);
+        compiledChip.getMemory().loadROM(loop);
+        compiledChip.runUncapped(10_000);
+
+        assertTrue(compiledChip.getCompiledBlockCount() > 0);
+        assertEquals(interpreted.getTotal(), compiled.getTotal());
+        for (OpCodeTypes type : OpCodeTypes.values()) {
+            assertEquals(interpreted.getOpcodeCount(type), compiled.getOpcodeCount(type), type.name());
+        }
+        for (int address = 0x200; address < 0x208; address += 2) {
+            assertEquals(interpreted.getAddressCount(address), compiled.getAddressCount(address));
+        }
+    }
+
+    @Test
+    public void reportTest() {
+        testChip.runUncapped(301);
+        String report = profile.report(3);
+
+        assertTrue(report.startsWith("301 instructions"), report);
+        assertTrue(report.contains("OP_7xkk"), report);
+        assertTrue(report.contains("202  7001  ADD V0, 01"), report);
+        assertFalse(report.contains("200  6000"), report);
+    }
+
+    @Test
+    public void noHotAddressesTest() {
+        testChip.runUncapped(301);
+        assertEquals(0, profile.hotAddresses(0).length);
+        assertEquals(0, profile.hotAddresses(-1).length);
+
+        // --profile 0 reports the opcodes and no addresses
+        String report = profile.report(0);
+        assertTrue(report.contains("OP_7xkk"), report);
+        assertTrue(report.endsWith(String.format("Hot addresses:%n")), report);
+    }
+
+    @Test
+    public void resetTest() {
+        testChip.runUncapped(100);
+        profile.reset();
+        assertEquals(0, profile.getTotal());
+        assertEquals(0, profile.hotAddresses(5).length);
+    }
+
+    @Test
+    public void resetForgetsInstructionsTest() {
+        testChip.runUncapped(301);
+        profile.reset();
+
+        // 0x204 now holds V1 |= V0, the report has to show that and not the XOR from before the reset
+        testChip.getMemory().writeByte(0x205, (char) 0x01);
+        testChip.runUncapped(3);
+        String report = profile.report(3);
+        assertTrue(report.contains("204  8101"), report);
+        assertFalse(report.contains("8103"), report);
+    }
+}
@@ -0,0 +1,117 @@
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.ExecutionReport;
+import org.chip8_sim.CPU.FrameScheduler;
+import org.chip8_sim.Metrics.EmulatorMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameSchedulerTest {
+    private Chip testChip;
+
+    @BeforeEach
+    public void setUp() {
+        testChip = TestData.testChip();
+        // Jump to itself
+        testChip.getMemory().loadROM(new byte[] {0x12, 0x00});
+    }
+
+    @Test
+    public void exactClockRateTest() {
+        long total = 0;
+        for (int frame = 0; frame < FrameScheduler.FRAME_HZ; frame++) {
+            int batch = FrameScheduler.instructionsForFrame(frame, 400);
+            assertTrue(batch == 6 || batch == 7, String.valueOf(batch));
+            total += batch;
+        }
+        assertEquals(400, total);
+        assertEquals(7, FrameScheduler.instructionsForFrame(12345, 420));
+    }
+
+    @Test
+    public void runFrameTicksOnceTest() {
+        testChip.setDelayTimer((char) 10);
+        ExecutionReport report = testChip.runFrame(7);
+
+        assertEquals(7, report.getInstructions());
+        assertEquals(1, report.getTimerTicks());
+        assertEquals(9, testChip.getDelayTimer());
+
+        // A clock slower than the frame rate still ticks the timers every frame
+        assertEquals(1, testChip.runFrame(0).getTimerTicks());
+        assertEquals(8, testChip.getDelayTimer());
+    }
+
+    @Test
+    public void pacedRunTest() {
+        EmulatorMetrics metrics = new EmulatorMetrics();
+        testChip.setMetrics(metrics);
+        testChip.setDelayTimer((char) 100);
+
+        // Half a second at 400Hz
+        ExecutionReport report = new FrameScheduler(testChip, 400).runFrames(30);
+
+        assertEquals(200, report.getInstructions());
+        assertEquals(30, report.getTimerTicks());
+        assertEquals(70, testChip.getDelayTimer());
+        assertEquals(29, metrics.getTimerTicks());
+
+        // The last frame's deadline is awaited as well, so the run can't be shorter than 30 frames.
+        // Only a loose upper bound, a loaded machine may oversleep a lot
+        long millis = TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos());
+        assertTrue(millis >= 499 && millis < 10_000, millis + " ms");
+    }
+
+    @Test
+    public void reportsToMetricsTest() {
+        EmulatorMetrics metrics = new EmulatorMetrics();
+        testChip.setMetrics(metrics);
+
+        new FrameScheduler(testChip, 420).runFrames(10);
+
+        assertEquals(70, metrics.getCyclesExecuted());
+        assertEquals(9, metrics.getTimerTicks());
+    }
+
+    @Test
+    public void stopTest() throws Exception {
+        FrameScheduler scheduler = new FrameScheduler(testChip);
+        CompletableFuture<ExecutionReport> run = CompletableFuture.supplyAsync(scheduler::run);
+
+        Thread.sleep(100);
+        scheduler.stop();
+        ExecutionReport report = run.get(1, TimeUnit.SECONDS);
+
+        assertFalse(report.isHalted());
+        assertFalse(scheduler.isRunning());
+        assertTrue(report.getInstructions() > 0);
+    }
+
+    @Test
+    public void stopBeforeRunTest() {
+        FrameScheduler scheduler = new FrameScheduler(testChip);
+        scheduler.stop();
+
+        // The early stop ends the next run before its first frame, and only that run
+        assertEquals(0, scheduler.runFrames(60).getInstructions());
+        assertEquals(13, scheduler.runFrames(2).getInstructions());
+    }
+
+    @Test
+    public void haltsOnUnsupportedTest() {
+        testChip.getMemory().loadROM(new byte[] {0x60, 0x01, (byte) 0xFF, (byte) 0xFF});
+        ExecutionReport report = new FrameScheduler(testChip).run();
+
+        assertTrue(report.isHalted());
+        assertEquals(1, report.getInstructions());
+    }
+
+    @Test
+    public void invalidClockTest() {
+        assertThrows(IllegalArgumentException.class, () -> new FrameScheduler(testChip, 0));
+    }
+}
@@ -0,0 +1,118 @@
+import org.chip8_sim.CPU.Addresses;
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.ExecutionReport;
+import org.chip8_sim.CPU.XorShiftRandom;
+import org.chip8_sim.Keyboard.InputEvent;
+import org.chip8_sim.Keyboard.InputReplay;
+import org.chip8_sim.Keyboard.InputScript;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputReplayTest {
+    private Chip testChip;
+
+    @BeforeEach
+    public void setUp() {
+        testChip = TestData.testChip();
+    }
+
+    @Nested
+    public class ParseTest {
+        @Test
+        public void parseScriptTest() {
+            InputScript script = InputScript.parse("""
+                    # comment
+                    frame 10 down a
+
+                    cycle 5 up 3
+                    """, 7);
+
+            List<InputEvent> events = script.getEvents();
+            assertEquals(2, events.size());
+            assertEquals(5, events.get(0).getCycle());
+            assertEquals(0x3, events.get(0).getKey());
+            assertFalse(events.get(0).isPressed());
+            assertEquals(70, events.get(1).getCycle());
+            assertEquals(0xA, events.get(1).getKey());
+            assertTrue(events.get(1).isPressed());
+        }
+
+        @Test
+        public void parseErrorTest() {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> InputScript.parse("frame 1 down 2\nframe x down 2", 7));
+            assertTrue(e.getMessage().contains("line 2"));
+
+            assertThrows(IllegalArgumentException.class, () -> InputScript.parse("frame 1 down G", 7));
+            assertThrows(IllegalArgumentException.class, () -> InputScript.parse("second 1 down 2", 7));
+            assertThrows(IllegalArgumentException.class, () -> InputScript.parse("frame 1 hold 2", 7));
+        }
+    }
+
+    @Test
+    public void replayKeyAtCycleTest() {
+        // V1 counts cycles until Fx0A gets a key: V1 += 1, Fx0A, jump to self
+        char[] program = {0x71, 0x01, 0xF0, 0x0A, 0x12, 0x04};
+        for (int i = 0; i < program.length; i++) {
+            testChip.getMemory().writeByte(Addresses.START_ADDRESS.address + i, program[i]);
+        }
+
+        InputScript script = InputScript.parse("cycle 40 down 9\ncycle 41 up 9", 7);
+        ExecutionReport report = new InputReplay(testChip, script).run(100);
+
+        assertEquals(100, report.getInstructions());
+        assertEquals(100, testChip.getCycleCount());
+        assertEquals(0x9, testChip.getRegisters()[0]);
+        assertFalse(testChip.isWaitingForKey());
+        assertEquals(0, testChip.getKeypad().getPressedKeys());
+    }
+
+    @Test
+    public void replayIsDeterministicTest() throws Exception {
+        String script = """
+                frame 30 down 5
+                frame 32 up 5
+                frame 60 down 4
+                frame 70 up 4
+                frame 90 down 6
+                frame 95 up 6
+                """;
+
+        Chip first = replayTetris(script);
+        Chip second = replayTetris(script);
+
+        assertArrayEquals(first.saveState(), second.saveState());
+    }
+
+    @Test
+    public void replayInSlicesTest() throws Exception {
+        // Splitting the budget doesn't change where events land
+        InputScript script = InputScript.parse("frame 30 down 5\nframe 40 up 5", 7);
+        Chip whole = tetris();
+        new InputReplay(whole, script).run(5_000);
+
+        Chip sliced = tetris();
+        InputReplay replay = new InputReplay(sliced, script);
+        for (int i = 0; i < 50; i++) replay.run(100);
+
+        assertArrayEquals(whole.saveState(), sliced.saveState());
+    }
+
+    private Chip replayTetris(String script) throws Exception {
+        Chip chip = tetris();
+        new InputReplay(chip, InputScript.parse(script, Chip.DEFAULT_CYCLES_PER_TIMER_TICK)).run(10_000);
+        return chip;
+    }
+
+    private Chip tetris() throws Exception {
+        Chip chip = TestData.testChip();
+        chip.setRandomSource(new XorShiftRandom(1));
+        chip.getMemory().loadROM(TestData.romPath("Tetris.ch8").toString());
+        return chip;
+    }
+}
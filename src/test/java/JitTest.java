@@ -0,0 +1,153 @@
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.XorShiftRandom;
+import org.chip8_sim.Display.FrameBuffer;
+import org.chip8_sim.Keyboard.Keypad;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JitTest {
+    private static Chip bootRom(String rom, boolean jit) throws Exception {
+        Chip chip = new Chip(TestData.testFrameBuffer(), new Keypad());
+        chip.setRandomSource(new XorShiftRandom(11));
+        chip.getMemory().loadROM(TestData.romPath(rom).toString());
+        chip.setJitEnabled(jit);
+        return chip;
+    }
+
+    private static Chip bootProgram(byte[] program, boolean jit) {
+        Chip chip = new Chip(TestData.testFrameBuffer(), new Keypad());
+        chip.setRandomSource(new XorShiftRandom(11));
+        chip.getMemory().loadROM(program);
+        chip.setJitEnabled(jit);
+        return chip;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Tetris.ch8", "Space_Invaders.ch8", "test_opcode.ch8", "chip_test.ch8"})
+    public void matchesInterpreterTest(String rom) throws Exception {
+        Chip interpreted = bootRom(rom, false);
+        Chip compiled = bootRom(rom, true);
+
+        // Odd slices so blocks keep running into the end of the budget and into timer ticks
+        for (int slice = 0; slice < 20; slice++) {
+            interpreted.runUncapped(10_007, 5);
+            compiled.runUncapped(10_007, 5);
+            assertArrayEquals(interpreted.saveState(), compiled.saveState(), rom + " diverged in slice " + slice);
+        }
+    }
+
+    @Test
+    public void compilesHotCodeTest() throws Exception {
+        Chip chip = bootRom("Space_Invaders.ch8", true);
+        chip.runUncapped(50_000);
+        assertTrue(chip.getCompiledBlockCount() > 0);
+    }
+
+    @Test
+    public void disabledByDefaultTest() throws Exception {
+        Chip chip = bootRom("Space_Invaders.ch8", false);
+        chip.runUncapped(50_000);
+        assertFalse(chip.isJitEnabled());
+        assertEquals(0, chip.getCompiledBlockCount());
+    }
+
+    @Nested
+    public class SelfModifyingCodeTest {
+        // 0x200: V0 += 1
+        // 0x202: V1 += 1, the immediate at 0x203 gets patched below
+        // 0x204: I = 0x203
+        // 0x206: store V0 at I
+        // 0x208: jump to 0x200
+        private final byte[] patchesItself = {
+                0x70, 0x01,
+                0x71, 0x01,
+                (byte) 0xA2, 0x03,
+                (byte) 0xF1, 0x55,
+                0x12, 0x00
+        };
+
+        @Test
+        public void patchedImmediateIsSeenTest() {
+            Chip interpreted = bootProgram(patchesItself, false);
+            Chip compiled = bootProgram(patchesItself, true);
+
+            interpreted.runUncapped(5_001);
+            compiled.runUncapped(5_001);
+
+            assertArrayEquals(interpreted.saveState(), compiled.saveState());
+            // A stale block would have kept adding 1
+            assertNotEquals(1000, compiled.getRegisters()[1]);
+        }
+
+        @Test
+        public void patchedJumpIsSeenTest() {
+            // Counts V2 up to 0x10 in a loop that gets compiled, then rewrites the loop head into a
+            // jump to a second loop counting V3
+            byte[] program = {
+                    0x72, 0x01,             // 0x200: V2 += 1
+                    0x32, 0x10,             // 0x202: skip if V2 == 0x10
+                    0x12, 0x00,             // 0x204: jump to 0x200
+                    0x60, 0x12,             // 0x206: V0 = 0x12
+                    0x61, 0x10,             // 0x208: V1 = 0x10
+                    (byte) 0xA2, 0x00,      // 0x20A: I = 0x200
+                    (byte) 0xF2, 0x55,      // 0x20C: store V0, V1 at I, 0x200 is now a jump to 0x210
+                    0x12, 0x00,             // 0x20E: jump to 0x200
+                    0x73, 0x01,             // 0x210: V3 += 1
+                    0x12, 0x10              // 0x212: jump to 0x210
+            };
+            Chip interpreted = bootProgram(program, false);
+            Chip compiled = bootProgram(program, true);
+
+            interpreted.runUncapped(1_000);
+            compiled.runUncapped(1_000);
+
+            assertArrayEquals(interpreted.saveState(), compiled.saveState());
+            assertEquals(0x10, compiled.getRegisters()[2]);
+            assertTrue(compiled.getRegisters()[3] > 0);
+        }
+
+        @Test
+        public void outsideWriteIsSeenTest() {
+            // V0 += 1, V1 += 2, jump back
+            byte[] program = {0x70, 0x01, 0x71, 0x02, 0x12, 0x00};
+            Chip interpreted = bootProgram(program, false);
+            Chip compiled = bootProgram(program, true);
+            interpreted.runUncapped(300);
+            compiled.runUncapped(300);
+            assertTrue(compiled.getCompiledBlockCount() > 0);
+
+            // Patching memory directly, not through an instruction, still reaches the compiled block
+            interpreted.getMemory().writeByte(0x203, (char) 0x05);
+            compiled.getMemory().writeByte(0x203, (char) 0x05);
+            interpreted.runUncapped(300);
+            compiled.runUncapped(300);
+
+            assertArrayEquals(interpreted.saveState(), compiled.saveState());
+        }
+
+        @Test
+        public void dataWriteNextToCodeTest() {
+            // The BCD of V0 lands on the same page as the loop, the compiled code stays valid
+            byte[] program = {
+                    0x70, 0x01,             // 0x200: V0 += 1
+                    (byte) 0xA2, 0x10,      // 0x202: I = 0x210
+                    (byte) 0xF0, 0x33,      // 0x204: BCD of V0 at I
+                    0x71, 0x03,             // 0x206: V1 += 3
+                    (byte) 0x81, 0x03,      // 0x208: V1 ^= V0
+                    0x12, 0x00              // 0x20A: jump to 0x200
+            };
+            Chip interpreted = bootProgram(program, false);
+            Chip compiled = bootProgram(program, true);
+
+            interpreted.runUncapped(2_000);
+            compiled.runUncapped(2_000);
+
+            assertArrayEquals(interpreted.saveState(), compiled.saveState());
+            assertTrue(compiled.getCompiledBlockCount() >= 2);
+        }
+    }
+}
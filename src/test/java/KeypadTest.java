@@ -0,0 +1,134 @@
+import org.chip8_sim.Keyboard.Keypad;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeypadTest {
+    private Keypad keypad;
+
+    @BeforeEach
+    public void setUp() {
+        keypad = new Keypad();
+    }
+
+    @Test
+    public void multipleKeysTest() {
+        keypad.press((char) 0x3);
+        keypad.press((char) 0xA);
+
+        assertTrue(keypad.isPressed(0x3));
+        assertTrue(keypad.isPressed(0xA));
+        assertEquals((1 << 0x3) | (1 << 0xA), keypad.getPressedKeys());
+        assertEquals(0x3, keypad.getPressedKey());
+
+        keypad.release((char) 0x3);
+        assertEquals(0xA, keypad.getPressedKey());
+        keypad.release((char) 0xA);
+        assertEquals(Keypad.NO_KEY, keypad.getPressedKey());
+    }
+
+    @Test
+    public void edgesOnlyOnChangesTest() {
+        keypad.press((char) 0x5);
+        // Auto repeat, and keyTyped following keyPressed
+        keypad.press((char) 0x5);
+        keypad.press((char) 0x5);
+        keypad.release((char) 0x5);
+        keypad.release((char) 0x5);
+        // Not a keypad key
+        keypad.press(Keypad.NO_KEY);
+
+        assertEquals(1, keypad.getPressEdges());
+        assertEquals(1, keypad.getReleaseEdges());
+    }
+
+    @Test
+    public void latencyMeasuredOnFirstReadTest() throws Exception {
+        keypad.press((char) 0x1);
+        Thread.sleep(20);
+        assertTrue(keypad.isPressed(0x1));
+
+        assertEquals(1, keypad.getObservedEdges());
+        assertTrue(keypad.getLastInputLatencyNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+
+        // Reading again without a new edge doesn't count as another observation
+        keypad.isPressed(0x1);
+        assertEquals(1, keypad.getObservedEdges());
+        assertEquals(keypad.getLastInputLatencyNanos(), keypad.getMaxInputLatencyNanos());
+    }
+
+    @Test
+    public void crossThreadVisibilityTest() throws Exception {
+        // A reader spinning on the keypad, like Fx0A waiting, has to see a key pressed on another thread
+        CompletableFuture<Character> reader = CompletableFuture.supplyAsync(() -> {
+            char key;
+            while ((key = keypad.getPressedKey()) == Keypad.NO_KEY) {
+                Thread.onSpinWait();
+            }
+            return key;
+        });
+
+        Thread.sleep(10);
+        keypad.press((char) 0xC);
+
+        assertEquals((char) 0xC, (char) reader.get(5, TimeUnit.SECONDS));
+        assertTrue(keypad.getMaxInputLatencyNanos() < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void concurrentPressesTest() throws Exception {
+        // Sixteen threads each hammering their own key, no update may be lost
+        Thread[] threads = new Thread[16];
+        for (int key = 0; key < threads.length; key++) {
+            char k = (char) key;
+            threads[key] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    keypad.press(k);
+                    keypad.release(k);
+                }
+                keypad.press(k);
+            });
+            threads[key].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(0xFFFF, keypad.getPressedKeys());
+        assertEquals(16 * 10_001, keypad.getPressEdges());
+        assertEquals(16 * 10_000, keypad.getReleaseEdges());
+    }
+
+    @Test
+    public void latencyWhileKeysChangeTest() throws Exception {
+        // A reader polling while writers keep changing the keys, every latency it notes belongs to
+        // an edge it saw, so none is negative and none is older than the whole run
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            char k = (char) w;
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    keypad.press(k);
+                    keypad.release(k);
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread writer : writers) writer.start();
+
+        boolean writing = true;
+        while (writing) {
+            keypad.getPressedKey();
+            assertTrue(keypad.getLastInputLatencyNanos() >= 0);
+            writing = false;
+            for (Thread writer : writers) writing |= writer.isAlive();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(keypad.getObservedEdges() > 0);
+        assertTrue(keypad.getMaxInputLatencyNanos() <= elapsed, keypad.getMaxInputLatencyNanos() + " > " + elapsed);
+        assertTrue(keypad.getMeanInputLatencyNanos() >= 0);
+    }
+}
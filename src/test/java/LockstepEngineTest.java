@@ -0,0 +1,175 @@
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.LockstepEngine;
+import org.chip8_sim.CPU.XorShiftRandom;
+import org.chip8_sim.Display.FrameBuffer;
+import org.chip8_sim.Keyboard.Keypad;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LockstepEngineTest {
+    private static final int MACHINES = 6;
+    private static final int TIMER_TICK = 5;
+
+    private static byte[] rom(String name) throws Exception {
+        return Files.readAllBytes(TestData.romPath(name));
+    }
+
+    private static Chip reference(byte[] rom, long seed) {
+        Chip chip = new Chip(TestData.testFrameBuffer(), new Keypad());
+        chip.setRandomSource(new XorShiftRandom(seed));
+        chip.getMemory().loadROM(rom);
+        return chip;
+    }
+
+    private static LockstepEngine engine(byte[] rom) {
+        LockstepEngine engine = new LockstepEngine(MACHINES, TIMER_TICK);
+        engine.loadROM(rom);
+        for (int m = 0; m < MACHINES; m++) engine.setSeed(m, m * 31L);
+        return engine;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Tetris.ch8", "Space_Invaders.ch8", "test_opcode.ch8", "chip_test.ch8"})
+    public void matchesChipTest(String name) throws Exception {
+        byte[] rom = rom(name);
+        LockstepEngine engine = engine(rom);
+        Chip[] chips = new Chip[MACHINES];
+        for (int m = 0; m < MACHINES; m++) chips[m] = reference(rom, m * 31L);
+
+        // Every machine gets its own input, changing between the odd sized slices
+        for (int slice = 0; slice < 30; slice++) {
+            for (int m = 0; m < MACHINES; m++) {
+                int key = (slice + m) % 17;
+                Keypad keypad = chips[m].getKeypad();
+                for (char k = 0; k < 16; k++) keypad.release(k);
+                if (key < 16) keypad.press((char) key);
+                engine.setKeys(m, keypad.getPressedKeys());
+            }
+
+            engine.step(1_003);
+            for (int m = 0; m < MACHINES; m++) {
+                chips[m].runUncapped(1_003, TIMER_TICK);
+                assertArrayEquals(chips[m].saveState(), engine.toChip(m).saveState(),
+                        name + " machine " + m + " diverged in slice " + slice);
+            }
+        }
+    }
+
+    @Test
+    public void parallelMatchesSequentialTest() throws Exception {
+        byte[] rom = rom("Space_Invaders.ch8");
+        LockstepEngine sequential = new LockstepEngine(200);
+        LockstepEngine parallel = new LockstepEngine(200);
+        sequential.loadROM(rom);
+        parallel.loadROM(rom);
+        for (int m = 0; m < 200; m++) {
+            sequential.setSeed(m, m);
+            parallel.setSeed(m, m);
+        }
+
+        for (int frame = 0; frame < 20; frame++) {
+            sequential.step(500);
+            parallel.stepParallel(500);
+        }
+
+        long[] expected = new long[200];
+        long[] actual = new long[200];
+        sequential.frameHashes(expected);
+        parallel.frameHashes(actual);
+        assertArrayEquals(expected, actual);
+        for (int m = 0; m < 200; m++) {
+            assertEquals(sequential.getCycleCount(m), parallel.getCycleCount(m));
+            assertEquals(sequential.getProgramCounter(m), parallel.getProgramCounter(m));
+        }
+    }
+
+    @Test
+    public void frameHashesMatchFrameBufferTest() throws Exception {
+        LockstepEngine engine = engine(rom("test_opcode.ch8"));
+        engine.step(5_000);
+
+        long[] hashes = new long[MACHINES];
+        engine.frameHashes(hashes);
+        for (int m = 0; m < MACHINES; m++) {
+            assertEquals(((FrameBuffer) engine.toChip(m).getDisplay()).hash(), hashes[m]);
+        }
+    }
+
+    @Test
+    public void unsupportedInstructionHaltsOneMachineTest() {
+        LockstepEngine engine = new LockstepEngine(2);
+        // 0x200: skip the next instruction if V0 == 1
+        // 0x202: unsupported
+        // 0x204: V1 += 1
+        // 0x206: jump to 0x204
+        engine.loadROM(new byte[]{0x30, 0x01, (byte) 0xFF, (byte) 0xFF, 0x71, 0x01, 0x12, 0x04});
+        Chip chip = engine.toChip(1);
+        chip.getRegisters()[0] = 1;
+        engine.load(1, chip);
+
+        engine.step(11);
+
+        assertEquals(LockstepEngine.HALTED, engine.getStatus(0));
+        assertEquals(0x204, engine.getProgramCounter(0));
+        assertEquals(1, engine.getCycleCount(0));
+        assertEquals(LockstepEngine.RUNNING, engine.getStatus(1));
+        assertEquals(11, engine.getCycleCount(1));
+        assertEquals(5, engine.getRegister(1, 1));
+    }
+
+    @Test
+    public void stackOverflowFailsMachineTest() {
+        LockstepEngine engine = new LockstepEngine(1);
+        // 0x200: call 0x200, forever
+        engine.loadROM(new byte[]{0x22, 0x00});
+        engine.step(100);
+
+        assertEquals(LockstepEngine.FAILED, engine.getStatus(0));
+        assertEquals(16, engine.getCycleCount(0));
+
+        // A failed machine is left alone from then on
+        engine.step(100);
+        assertEquals(16, engine.getCycleCount(0));
+    }
+
+    @Test
+    public void observeRegisterTest() {
+        LockstepEngine engine = new LockstepEngine(3);
+        // 0x200: V3 = random & 0xFF
+        engine.loadROM(new byte[]{(byte) 0xC3, (byte) 0xFF});
+        for (int m = 0; m < 3; m++) engine.setSeed(m, 100 + m);
+        engine.step(1);
+
+        char[] values = new char[3];
+        engine.observeRegister(3, values);
+        for (int m = 0; m < 3; m++) {
+            assertEquals(new XorShiftRandom(100 + m).nextByte(), values[m]);
+        }
+    }
+
+    @Test
+    public void loadRequiresXorShiftRandomTest() {
+        LockstepEngine engine = new LockstepEngine(1);
+        Chip chip = new Chip(TestData.testFrameBuffer(), new Keypad());
+        chip.setRandomSource(() -> 4);
+        assertThrows(IllegalArgumentException.class, () -> engine.load(0, chip));
+    }
+
+    @Test
+    public void loadRejectsBrokenChipTest() {
+        LockstepEngine engine = new LockstepEngine(1);
+        Chip chip = engine.toChip(0);
+        chip.setCyclesUntilTimerTick(0);
+        assertThrows(IllegalArgumentException.class, () -> engine.load(0, chip));
+
+        Chip waiting = engine.toChip(0);
+        waiting.setKeyWaitRegister(16);
+        assertThrows(IllegalArgumentException.class, () -> engine.load(0, waiting));
+        assertEquals(LockstepEngine.RUNNING, engine.getStatus(0));
+    }
+}
@@ -0,0 +1,101 @@
+import org.chip8_sim.CPU.Addresses;
+import org.chip8_sim.CPU.Memory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryTest {
+    private Memory testMemory;
+
+    @BeforeEach
+    public void setUp() {
+        testMemory = TestData.testMemory();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        testMemory = null;
+    }
+
+    @Test
+    public void fontLoadedTest() {
+        for (int i = 0; i < TestData.sprites.length; i++) {
+            assertEquals(TestData.sprites[i], testMemory.readByte(i));
+        }
+    }
+
+    @Test
+    public void unsignedReadTest() {
+        testMemory.writeByte(0x300, (char) 0xF3);
+        testMemory.writeByte(0x301, (char) 0x8A);
+
+        assertEquals(0xF3, testMemory.readByte(0x300));
+        assertEquals(0xF38A, testMemory.readInstruction(0x300));
+    }
+
+    @Test
+    public void loadROMTest() throws Exception {
+        byte[] rom = Files.readAllBytes(TestData.romPath("Tetris.ch8"));
+        testMemory.loadROM(TestData.romPath("Tetris.ch8").toString());
+
+        for (int i = 0; i < rom.length; i++) {
+            assertEquals(rom[i] & 0xFF, testMemory.readByte(Addresses.START_ADDRESS.address + i));
+        }
+    }
+
+    @Test
+    public void loadROMTooLargeTest() {
+        byte[] rom = new byte[4096 - Addresses.START_ADDRESS.address + 1];
+        assertThrows(IllegalArgumentException.class, () -> testMemory.loadROM(rom));
+    }
+
+    @Nested
+    public class PageGenerationTest {
+        @Test
+        public void writeBumpsOnlyItsPageTest() {
+            int page = Memory.pageOf(0x345);
+            int before = testMemory.getPageGeneration(page);
+            int neighbour = testMemory.getPageGeneration(page + 1);
+
+            testMemory.writeByte(0x345, (char) 0x12);
+
+            assertEquals(before + 1, testMemory.getPageGeneration(page));
+            assertEquals(neighbour, testMemory.getPageGeneration(page + 1));
+        }
+
+        @Test
+        public void readsDoNotBumpTest() {
+            int before = testMemory.getPageGeneration(Memory.pageOf(0x200));
+            testMemory.readByte(0x200);
+            testMemory.readInstruction(0x200);
+            assertEquals(before, testMemory.getPageGeneration(Memory.pageOf(0x200)));
+        }
+
+        @Test
+        public void loadROMBumpsCoveredPagesTest() {
+            int[] before = new int[testMemory.pageCount()];
+            for (int page = 0; page < before.length; page++) before[page] = testMemory.getPageGeneration(page);
+
+            // 0x200 to 0x263 covers the pages starting at 0x200 and 0x240
+            testMemory.loadROM(new byte[100]);
+
+            for (int page = 0; page < before.length; page++) {
+                boolean covered = page == Memory.pageOf(0x200) || page == Memory.pageOf(0x263);
+                assertEquals(before[page] + (covered ? 1 : 0), testMemory.getPageGeneration(page), "page " + page);
+            }
+        }
+
+        @Test
+        public void copyFromBumpsEveryPageTest() {
+            testMemory.copyFrom(new byte[testMemory.size()], 0);
+            for (int page = 0; page < testMemory.pageCount(); page++) {
+                assertTrue(testMemory.getPageGeneration(page) > 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.Metrics.EmulatorMetrics;
+import org.chip8_sim.Metrics.Metrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+    private Chip testChip;
+    private EmulatorMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        testChip = TestData.testChip();
+        metrics = new EmulatorMetrics();
+        testChip.setMetrics(metrics);
+    }
+
+    @Test
+    public void defaultsToNoneTest() {
+        assertSame(Metrics.NONE, TestData.testChip().getMetrics());
+        testChip.setMetrics(null);
+        assertSame(Metrics.NONE, testChip.getMetrics());
+    }
+
+    @Test
+    public void countsCyclesTest() {
+        // Jump to itself
+        testChip.getMemory().loadROM(new byte[] {0x12, 0x00});
+        testChip.runUncapped(1_000);
+        testChip.runUncapped(500);
+
+        assertEquals(1_500, metrics.getCyclesExecuted());
+        assertEquals(0, metrics.getUnsupportedOpcodes());
+    }
+
+    @Test
+    public void unsupportedOpcodeTest() {
+        testChip.getMemory().loadROM(new byte[] {0x60, 0x01, (byte) 0xFF, (byte) 0xFF});
+        assertTrue(testChip.runUncapped(100).isHalted());
+
+        assertEquals(1, metrics.getUnsupportedOpcodes());
+        assertEquals("202: ffff", metrics.getLastUnsupportedOpcode());
+        assertEquals(1, metrics.getCyclesExecuted());
+    }
+
+    @Test
+    public void timerJitterTest() {
+        metrics.timerTick(16_000_000, 16_666_667);
+        metrics.timerTick(18_666_667, 16_666_667);
+
+        assertEquals(2, metrics.getTimerTicks());
+        assertEquals(2_000_000, metrics.getMaxTimerJitterNanos());
+        assertEquals((666_667 + 2_000_000) / 2.0, metrics.getMeanTimerJitterNanos(), 1e-6);
+    }
+
+    @Test
+    public void instructionRateTest() throws Exception {
+        metrics.cyclesExecuted(1);
+        Thread.sleep(1_050);
+        metrics.cyclesExecuted(1_000);
+
+        // 1001 instructions over a bit more than a second
+        assertTrue(metrics.getInstructionsPerSecond() > 500, String.valueOf(metrics.getInstructionsPerSecond()));
+        assertTrue(metrics.getInstructionsPerSecond() < 1001, String.valueOf(metrics.getInstructionsPerSecond()));
+    }
+
+    @Test
+    public void resetTest() {
+        metrics.cyclesExecuted(10);
+        metrics.overrun();
+        metrics.framePresented();
+        metrics.reset();
+
+        assertEquals(0, metrics.getCyclesExecuted());
+        assertEquals(0, metrics.getOverruns());
+        assertEquals(0, metrics.getFramesPresented());
+    }
+
+    @Test
+    public void resetRestartsRateWindowTest() throws Exception {
+        // A stale window full of cycles from before the reset must not leak into the first rate after it
+        metrics.cyclesExecuted(1_000_000_000L);
+        Thread.sleep(600);
+        metrics.reset();
+        metrics.cyclesExecuted(0);
+
+        Thread.sleep(1_050);
+        metrics.cyclesExecuted(1_000);
+        assertTrue(metrics.getInstructionsPerSecond() > 0);
+        assertTrue(metrics.getInstructionsPerSecond() < 1001, String.valueOf(metrics.getInstructionsPerSecond()));
+    }
+
+    @Test
+    public void jmxTest() throws Exception {
+        ObjectName name = metrics.register("test");
+        try {
+            metrics.cyclesExecuted(42);
+            metrics.framePresented();
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(42L, server.getAttribute(name, "CyclesExecuted"));
+            assertEquals(1L, server.getAttribute(name, "FramesPresented"));
+        } finally {
+            metrics.unregister(name);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import org.chip8_sim.CPU.Addresses;
+import org.chip8_sim.CPU.Memory;
+import org.chip8_sim.CPU.RomCache;
+import org.chip8_sim.CPU.RomImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RomCacheTest {
+    private RomCache cache;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new RomCache();
+    }
+
+    @Test
+    public void sameRomLoadedOnceTest() throws Exception {
+        Path rom = TestData.romPath("Tetris.ch8");
+
+        RomImage first = cache.load(rom);
+        RomImage second = cache.load(rom);
+
+        assertSame(first, second);
+        assertEquals(Files.size(rom), first.size());
+    }
+
+    @Test
+    public void identicalRomsSharedTest() throws Exception {
+        Path copy = directory.resolve("copy.ch8");
+        Files.copy(TestData.romPath("Tetris.ch8"), copy);
+
+        RomImage original = cache.load(TestData.romPath("Tetris.ch8"));
+        RomImage copied = cache.load(copy);
+
+        assertTrue(copied.sharesContents(original));
+        // Each keeps the path it was loaded from, so errors name the right file
+        assertEquals(copy.toAbsolutePath().normalize(), copied.getPath());
+        assertEquals(TestData.romPath("Tetris.ch8").toAbsolutePath().normalize(), original.getPath());
+    }
+
+    @Test
+    public void cacheIsBoundedTest() throws Exception {
+        for (int i = 0; i <= RomCache.MAX_ENTRIES; i++) {
+            Path rom = directory.resolve("rom" + i + ".ch8");
+            Files.write(rom, new byte[]{0x12, (byte) i, (byte) (i >> 8)});
+            cache.load(rom);
+        }
+        assertEquals(RomCache.MAX_ENTRIES, cache.size());
+
+        // The least recently used one was dropped and is read again
+        Path first = directory.resolve("rom0.ch8");
+        RomImage reloaded = cache.load(first);
+        assertEquals(first.toAbsolutePath().normalize(), reloaded.getPath());
+        assertSame(reloaded, cache.load(first));
+    }
+
+    @Test
+    public void modifiedRomReloadedTest() throws Exception {
+        Path rom = directory.resolve("rom.ch8");
+        Files.write(rom, new byte[]{0x12, 0x00});
+        RomImage first = cache.load(rom);
+        long modified = Files.getLastModifiedTime(rom).toMillis();
+
+        Files.write(rom, new byte[]{0x12, 0x02, 0x00, 0x00});
+        Files.setLastModifiedTime(rom, FileTime.fromMillis(modified + 5_000));
+        RomImage second = cache.load(rom);
+
+        assertNotSame(first, second);
+        assertEquals(4, second.size());
+    }
+
+    @Test
+    public void romTooLargeTest() throws Exception {
+        Path rom = directory.resolve("large.ch8");
+        Files.write(rom, new byte[RomCache.MAX_ROM_SIZE + 1]);
+
+        assertThrows(IOException.class, () -> cache.load(rom));
+    }
+
+    @Test
+    public void emptyRomTest() throws Exception {
+        Path rom = directory.resolve("empty.ch8");
+        Files.write(rom, new byte[0]);
+
+        assertThrows(IOException.class, () -> cache.load(rom));
+    }
+
+    @Test
+    public void loadImageIntoMemoryTest() throws Exception {
+        Path path = TestData.romPath("Space_Invaders.ch8");
+        byte[] bytes = Files.readAllBytes(path);
+        Memory memory = TestData.testMemory();
+
+        memory.loadROM(cache.load(path));
+
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(bytes[i] & 0xFF, memory.readByte(Addresses.START_ADDRESS.address + i));
+        }
+    }
+}
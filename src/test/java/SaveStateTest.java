@@ -0,0 +1,137 @@
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.SaveState;
+import org.chip8_sim.CPU.XorShiftRandom;
+import org.chip8_sim.Display.FrameBuffer;
+import org.chip8_sim.Keyboard.Keypad;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SaveStateTest {
+    private FrameBuffer frameBuffer;
+    private Chip testChip;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        frameBuffer = TestData.testFrameBuffer();
+        testChip = new Chip(frameBuffer, new Keypad());
+        testChip.setRandomSource(new XorShiftRandom(7));
+        testChip.getMemory().loadROM(TestData.romPath("Space_Invaders.ch8").toString());
+        testChip.runUncapped(20_000);
+    }
+
+    @Test
+    public void saveRestoreRoundTripTest() {
+        byte[] state = testChip.saveState();
+
+        FrameBuffer otherFrameBuffer = TestData.testFrameBuffer();
+        Chip other = new Chip(otherFrameBuffer, new Keypad());
+        other.restoreState(state);
+
+        assertArrayEquals(state, other.saveState());
+        assertEquals(frameBuffer.hash(), otherFrameBuffer.hash());
+    }
+
+    @Test
+    public void forkFromSaveStateTest() {
+        // A restored copy continues exactly like the original
+        byte[] state = testChip.saveState();
+        FrameBuffer otherFrameBuffer = TestData.testFrameBuffer();
+        Chip other = new Chip(otherFrameBuffer, new Keypad());
+        other.restoreState(state);
+
+        testChip.runUncapped(50_000);
+        other.runUncapped(50_000);
+
+        assertEquals(testChip.getProgramCounter(), other.getProgramCounter());
+        assertArrayEquals(testChip.getRegisters(), other.getRegisters());
+        assertEquals(frameBuffer.hash(), otherFrameBuffer.hash());
+    }
+
+    @Test
+    public void restoreRewindsTest() {
+        byte[] state = testChip.saveState();
+        testChip.runUncapped(10_000);
+        testChip.restoreState(state);
+
+        assertArrayEquals(state, testChip.saveState());
+    }
+
+    @Nested
+    public class InvalidStateTest {
+        @Test
+        public void wrongLengthTest() {
+            assertThrows(IllegalArgumentException.class, () -> testChip.restoreState(new byte[10]));
+        }
+
+        @Test
+        public void wrongMagicTest() {
+            byte[] state = testChip.saveState();
+            state[0] = 0;
+            assertThrows(IllegalArgumentException.class, () -> testChip.restoreState(state));
+        }
+
+        @Test
+        public void wrongVersionTest() {
+            byte[] state = testChip.saveState();
+            state[5] = (byte) (SaveState.VERSION + 1);
+            assertThrows(IllegalArgumentException.class, () -> testChip.restoreState(state));
+        }
+
+        // Offsets of the fields in a version 3 state, see SaveState
+        private void assertRejected(int offset, Consumer<ByteBuffer> corrupt) {
+            byte[] before = testChip.saveState();
+            byte[] state = testChip.saveState();
+            corrupt.accept(ByteBuffer.wrap(state).position(offset));
+
+            assertThrows(IllegalArgumentException.class, () -> testChip.restoreState(state));
+            // Nothing was applied
+            assertArrayEquals(before, testChip.saveState());
+        }
+
+        @Test
+        public void programCounterOutsideMemoryTest() {
+            assertRejected(6, buffer -> buffer.putChar((char) 0x0FFF));
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {-2, 16, 127})
+        public void keyWaitRegisterOutOfRangeTest(int register) {
+            assertRejected(14, buffer -> buffer.put((byte) register));
+        }
+
+        @Test
+        public void negativeCycleCountTest() {
+            assertRejected(15, buffer -> buffer.putLong(-1));
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, -7})
+        public void timerTickNotPositiveTest(int cycles) {
+            assertRejected(23, buffer -> buffer.putInt(cycles));
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {-2, 16})
+        public void stackPointerOutOfRangeTest(int sp) {
+            assertRejected(59, buffer -> buffer.put((byte) sp));
+        }
+
+        @Test
+        public void unknownRandomSourceTest() {
+            assertRejected(92, buffer -> buffer.put((byte) 9));
+        }
+
+        @Test
+        public void zeroXorShiftStateTest() {
+            assertRejected(93, buffer -> buffer.putLong(0));
+        }
+    }
+}
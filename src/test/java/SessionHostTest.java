@@ -0,0 +1,119 @@
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.Runner.Session;
+import org.chip8_sim.Runner.SessionHost;
+import org.chip8_sim.Runner.SessionState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionHostTest {
+    // V0 += 1, jump back
+    private static final byte[] COUNTER = {0x70, 0x01, 0x12, 0x00};
+
+    private SessionHost host;
+
+    @BeforeEach
+    public void setUp() {
+        host = new SessionHost(2);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        host.close();
+    }
+
+    private static Chip chipRunning(byte[] program) {
+        Chip chip = TestData.testChip();
+        chip.getMemory().loadROM(program);
+        return chip;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void pacedSessionTest() throws Exception {
+        Session session = host.start(chipRunning(COUNTER), 420);
+        Thread.sleep(500);
+        session.stop();
+        await(session::isIdle);
+
+        // About 30 frames of 7 instructions in half a second
+        assertEquals(SessionState.STOPPED, session.getState());
+        assertTrue(session.getFrames() >= 20 && session.getFrames() <= 40, session.toString());
+        assertEquals(session.getFrames() * 7, session.getInstructions());
+        assertEquals(session.getInstructions(), session.getChip().getCycleCount());
+    }
+
+    @Test
+    public void pauseResumeTest() throws Exception {
+        Session session = host.start(chipRunning(COUNTER));
+        await(() -> session.getFrames() > 5);
+
+        session.pause();
+        await(session::isIdle);
+        long frames = session.getFrames();
+        Thread.sleep(100);
+        assertEquals(frames, session.getFrames());
+        assertEquals(SessionState.PAUSED, session.getState());
+
+        session.resume();
+        await(() -> session.getFrames() > frames + 5);
+        assertEquals(SessionState.RUNNING, session.getState());
+    }
+
+    @Test
+    public void haltAndFailureTest() throws Exception {
+        Session halting = host.start(chipRunning(new byte[] {0x60, 0x01, (byte) 0xFF, (byte) 0xFF}));
+        // RET with nothing on the stack
+        Session crashing = host.start(chipRunning(new byte[] {0x00, (byte) 0xEE}));
+        await(() -> halting.isIdle() && crashing.isIdle() && halting.getFrames() > 0 && crashing.getFrames() == 0
+                && crashing.getState() == SessionState.FAILED);
+
+        assertEquals(SessionState.HALTED, halting.getState());
+        assertEquals(1, halting.getInstructions());
+        assertNotNull(crashing.getFailure());
+
+        // Finished sessions can't be resumed, and the host can let go of them
+        halting.resume();
+        assertEquals(SessionState.HALTED, halting.getState());
+        assertEquals(2, host.removeFinished());
+        assertTrue(host.getSessions().isEmpty());
+    }
+
+    @Test
+    public void manySessionsTest() throws Exception {
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            sessions.add(host.start(chipRunning(COUNTER)));
+        }
+        Thread.sleep(500);
+
+        // Every session makes progress, none is starved by the others on its carrier
+        for (Session session : sessions) {
+            assertTrue(session.getFrames() >= 10, session.toString());
+            assertEquals(SessionState.RUNNING, session.getState());
+        }
+    }
+
+    @Test
+    public void closeStopsEverythingTest() throws Exception {
+        Session session = host.start(chipRunning(COUNTER));
+        await(() -> session.getFrames() > 0);
+        host.close();
+
+        assertEquals(SessionState.STOPPED, session.getState());
+        assertTrue(session.isIdle());
+    }
+}
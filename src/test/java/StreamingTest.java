@@ -0,0 +1,288 @@
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.XorShiftRandom;
+import org.chip8_sim.Display.FrameBuffer;
+import org.chip8_sim.Keyboard.Keypad;
+import org.chip8_sim.Runner.Session;
+import org.chip8_sim.Runner.SessionHost;
+import org.chip8_sim.Runner.SessionState;
+import org.chip8_sim.Streaming.FrameDecoder;
+import org.chip8_sim.Streaming.FrameStreamer;
+import org.chip8_sim.Streaming.OutputStreamSink;
+import org.chip8_sim.Streaming.QueueSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingTest {
+    private static Chip bootRom(String rom) throws Exception {
+        Chip chip = new Chip(TestData.testFrameBuffer(), new Keypad());
+        chip.setRandomSource(new XorShiftRandom(3));
+        chip.getMemory().loadROM(TestData.romPath(rom).toString());
+        return chip;
+    }
+
+    private static long[] rowsOf(Chip chip) {
+        long[] rows = new long[32];
+        chip.getDisplay().copyRows(rows);
+        return rows;
+    }
+
+    private static long[] rowsOf(FrameDecoder decoder) {
+        long[] rows = new long[32];
+        decoder.copyRows(rows);
+        return rows;
+    }
+
+    @Test
+    public void decodesEveryFrameTest() throws Exception {
+        Chip chip = bootRom("Space_Invaders.ch8");
+        QueueSink sink = new QueueSink(16);
+        FrameStreamer streamer = new FrameStreamer((FrameBuffer) chip.getDisplay(), sink);
+        FrameDecoder decoder = new FrameDecoder();
+        decoder.readHeader(sink.drain());
+
+        for (int frame = 1; frame <= 600; frame++) {
+            chip.runFrame(7);
+            assertTrue(streamer.poll());
+            InputStream records = sink.drain();
+            while (decoder.readFrame(records)) {
+            }
+            // Frames that changed nothing have no record, the decoder still shows the right screen
+            assertArrayEquals(rowsOf(chip), rowsOf(decoder), "frame " + frame);
+            assertTrue(decoder.getSequence() <= frame);
+        }
+        assertFalse(streamer.poll());
+
+        // Ten seconds of gameplay fit in a few hundred bytes a second
+        assertTrue(streamer.getBytes() < 10 * 1_000, streamer.getBytes() + " bytes");
+    }
+
+    @Test
+    public void unchangedFramesAreLeftOutTest() throws Exception {
+        FrameBuffer frameBuffer = TestData.testFrameBuffer();
+        QueueSink sink = new QueueSink(16);
+        FrameStreamer streamer = new FrameStreamer(frameBuffer, sink);
+        sink.poll(); // header
+
+        frameBuffer.publishFrame();
+        streamer.poll();
+        assertNotNull(sink.poll(), "the first frame is a keyframe, even when blank");
+
+        frameBuffer.publishFrame();
+        streamer.poll();
+        assertNull(sink.poll());
+
+        long[] rows = new long[32];
+        rows[2] = 0x00FF000000000000L;
+        frameBuffer.restoreRows(rows);
+        frameBuffer.publishFrame();
+        streamer.poll();
+        // Two frames since the last record, one changed row with one non zero byte
+        assertArrayEquals(new byte[]{2, 1, 2, 0x40, (byte) 0xFF}, sink.poll());
+        assertEquals(2, streamer.getRecords());
+    }
+
+    @Test
+    public void keyframesLetViewersJoinLateTest() throws Exception {
+        FrameBuffer frameBuffer = TestData.testFrameBuffer();
+        QueueSink sink = new QueueSink(64);
+        FrameStreamer streamer = new FrameStreamer(frameBuffer, sink, 10);
+        FrameDecoder decoder = new FrameDecoder();
+        decoder.readHeader(new ByteArrayInputStream(sink.poll()));
+
+        Random random = new Random(5);
+        long[] rows = new long[32];
+        for (int frame = 0; frame < 25; frame++) {
+            rows[random.nextInt(32)] ^= random.nextLong();
+            frameBuffer.restoreRows(rows);
+            frameBuffer.publishFrame();
+            streamer.poll();
+        }
+
+        // Skip the first 15 records, the keyframe at record 21 brings the decoder in sync
+        for (int i = 0; i < 15; i++) sink.poll();
+        InputStream records = sink.drain();
+        assertTrue(decoder.readFrame(records));
+        assertFalse(decoder.isSynced());
+        while (decoder.readFrame(records)) {
+        }
+        assertTrue(decoder.isSynced());
+        assertArrayEquals(rows, rowsOf(decoder));
+    }
+
+    @Test
+    public void drainsLongBacklogTest() throws Exception {
+        FrameBuffer frameBuffer = TestData.testFrameBuffer();
+        QueueSink sink = new QueueSink(20_000);
+        FrameStreamer streamer = new FrameStreamer(frameBuffer, sink);
+
+        // Every frame changes, so each one queues a record
+        long[] rows = new long[32];
+        for (int frame = 0; frame < 10_000; frame++) {
+            rows[frame % 32] ^= frame + 1;
+            frameBuffer.restoreRows(rows);
+            frameBuffer.publishFrame();
+            streamer.poll();
+        }
+        assertEquals(10_001, sink.size());
+
+        FrameDecoder decoder = new FrameDecoder();
+        InputStream in = sink.drain();
+        decoder.readHeader(in);
+        while (decoder.readFrame(in)) {
+        }
+        assertArrayEquals(rows, rowsOf(decoder));
+        assertEquals(10_000, decoder.getSequence());
+    }
+
+    @Test
+    public void fileSinkTest(@TempDir Path directory) throws Exception {
+        Chip chip = bootRom("Tetris.ch8");
+        Path recording = directory.resolve("tetris.c8fs");
+        try (FrameStreamer streamer = new FrameStreamer((FrameBuffer) chip.getDisplay(), OutputStreamSink.file(recording))) {
+            for (int frame = 0; frame < 300; frame++) {
+                chip.runFrame(7);
+                streamer.poll();
+            }
+        }
+
+        FrameDecoder decoder = new FrameDecoder();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(recording))) {
+            decoder.readHeader(in);
+            while (decoder.readFrame(in)) {
+            }
+        }
+        assertArrayEquals(rowsOf(chip), rowsOf(decoder));
+    }
+
+    @Test
+    public void socketSinkTest() throws Exception {
+        Chip chip = bootRom("Space_Invaders.ch8");
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            CompletableFuture<long[]> viewer = CompletableFuture.supplyAsync(() -> {
+                try (Socket socket = server.accept(); InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                    FrameDecoder decoder = new FrameDecoder();
+                    decoder.readHeader(in);
+                    while (decoder.readFrame(in)) {
+                    }
+                    return rowsOf(decoder);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            OutputStreamSink sink = OutputStreamSink.connect("localhost", server.getLocalPort());
+            try (FrameStreamer streamer = new FrameStreamer((FrameBuffer) chip.getDisplay(), sink)) {
+                for (int frame = 0; frame < 200; frame++) {
+                    chip.runFrame(7);
+                    streamer.poll();
+                }
+            }
+            assertArrayEquals(rowsOf(chip), viewer.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void slowConsumerIsCutOffTest() throws Exception {
+        FrameBuffer frameBuffer = TestData.testFrameBuffer();
+        QueueSink sink = new QueueSink(2);
+        FrameStreamer streamer = new FrameStreamer(frameBuffer, sink);
+
+        frameBuffer.publishFrame();
+        streamer.poll();
+        long[] rows = new long[32];
+        rows[0] = 1;
+        frameBuffer.restoreRows(rows);
+        frameBuffer.publishFrame();
+        assertThrows(IOException.class, streamer::poll);
+        assertTrue(sink.isClosed());
+    }
+
+    @Test
+    public void sessionKeepsRunningWhenViewerLeavesTest() throws Exception {
+        try (SessionHost host = new SessionHost(1)) {
+            Chip chip = bootRom("Space_Invaders.ch8");
+            QueueSink sink = new QueueSink(4);
+            Session session = host.start(chip);
+            session.stream(sink);
+            assertThrows(IllegalStateException.class, () -> session.stream(new QueueSink(4)));
+
+            // Nobody reads the queue, so the sink overflows and the session drops it
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (session.isStreaming()) {
+                assertTrue(System.currentTimeMillis() < deadline, "timed out");
+                Thread.sleep(5);
+            }
+            long frames = session.getFrames();
+            Thread.sleep(100);
+            assertTrue(session.getFrames() > frames);
+        }
+    }
+
+    @Test
+    public void finishedSessionRefusesStreamTest() throws Exception {
+        try (SessionHost host = new SessionHost(1)) {
+            Chip chip = TestData.testChip();
+            chip.getMemory().loadROM(new byte[]{(byte) 0xFF, (byte) 0xFF});
+            Session session = host.start(chip);
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!session.isIdle() || session.getState() != SessionState.HALTED) {
+                assertTrue(System.currentTimeMillis() < deadline, "timed out");
+                Thread.sleep(5);
+            }
+
+            QueueSink sink = new QueueSink(4);
+            assertThrows(IllegalStateException.class, () -> session.stream(sink));
+            assertTrue(sink.isClosed());
+            assertFalse(session.isStreaming());
+        }
+    }
+
+    @Test
+    public void closingHostEndsPausedStreamTest(@TempDir Path directory) throws Exception {
+        Path recording = directory.resolve("paused.c8fs");
+        Chip chip = bootRom("Space_Invaders.ch8");
+        SessionHost host = new SessionHost(1);
+        Session session = host.start(chip);
+        session.stream(OutputStreamSink.file(recording));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (session.getFrames() < 30) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+        session.pause();
+        while (!session.isIdle()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+
+        host.close();
+        assertFalse(session.isStreaming());
+
+        // Every frame the session ran made it into the file
+        FrameDecoder decoder = new FrameDecoder();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(recording))) {
+            decoder.readHeader(in);
+            while (decoder.readFrame(in)) {
+            }
+        }
+        assertTrue(decoder.isSynced());
+        assertArrayEquals(rowsOf(chip), rowsOf(decoder));
+    }
+}
@@ -1,6 +1,12 @@
 import org.chip8_sim.CPU.Chip;
 import org.chip8_sim.CPU.Memory;
 import org.chip8_sim.CPU.Stack;
+import org.chip8_sim.Display.FrameBuffer;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class TestData {
     public static final short[] sprites = {
@@ -31,4 +37,12 @@ public class TestData {
     public static Stack testStack() {
         return new Stack();
     }
+    public static FrameBuffer testFrameBuffer() {
+        return new FrameBuffer();
+    }
+    public static Path romPath(String name) throws URISyntaxException {
+        URL res = TestData.class.getClassLoader().getResource(name);
+        if (res == null) throw new IllegalStateException("ROM " + name + " is not on the classpath");
+        return Paths.get(res.toURI());
+    }
 }
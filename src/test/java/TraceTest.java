@@ -0,0 +1,154 @@
+import org.chip8_sim.CPU.Chip;
+import org.chip8_sim.CPU.Disassembler;
+import org.chip8_sim.CPU.TraceRecorder;
+import org.chip8_sim.CPU.XorShiftRandom;
+import org.chip8_sim.Runner.TraceDump;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TraceTest {
+    // V3 = 0x12, I = 0x300, V3 += V3 (VF = 0), jump back
+    private final byte[] loop = {
+            0x63, 0x12,
+            (byte) 0xA3, 0x00,
+            (byte) 0x83, 0x34,
+            0x12, 0x00
+    };
+
+    private Chip testChip;
+    private TraceRecorder trace;
+
+    @BeforeEach
+    public void setUp() {
+        testChip = TestData.testChip();
+        testChip.setRandomSource(new XorShiftRandom(3));
+        trace = new TraceRecorder(16);
+        testChip.setTraceRecorder(trace);
+    }
+
+    @Test
+    public void recordsCycleTest() {
+        testChip.getMemory().loadROM(loop);
+        testChip.runUncapped(4);
+
+        assertEquals(4, trace.size());
+        assertEquals(0x200, trace.getPc(0));
+        assertEquals(0x6312, trace.getInstruction(0));
+        assertEquals(3, trace.getChangedRegister(0));
+        assertEquals(0x12, trace.getChangedValue(0));
+
+        assertEquals(0x300, trace.getIndex(1));
+        assertEquals(-1, trace.getChangedRegister(1));
+
+        // V3 changes, VF stays 0 so it isn't the one reported
+        assertEquals(3, trace.getChangedRegister(2));
+        assertEquals(0x24, trace.getChangedValue(2));
+
+        assertEquals(0x206, trace.getPc(3));
+        assertEquals(-1, trace.getChangedRegister(3));
+    }
+
+    @Test
+    public void ringKeepsLastCyclesTest() {
+        testChip.getMemory().loadROM(loop);
+        testChip.runUncapped(101);
+
+        assertEquals(101, trace.getRecorded());
+        assertEquals(16, trace.size());
+        // Cycle 100 is the first instruction of the 26th pass through the loop
+        assertEquals(0x200, trace.getPc(15));
+        assertEquals(0x206, trace.getPc(14));
+    }
+
+    @Test
+    public void capacityRoundedUpTest() {
+        assertEquals(16, new TraceRecorder(9).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new TraceRecorder(0));
+    }
+
+    @Test
+    public void tracingBypassesCompiledBlocksTest() throws Exception {
+        testChip.setJitEnabled(true);
+        testChip.getMemory().loadROM(TestData.romPath("Space_Invaders.ch8").toString());
+
+        long executed = testChip.runUncapped(20_000).getInstructions();
+
+        assertEquals(executed, trace.getRecorded());
+        assertEquals(0, testChip.getCompiledBlockCount());
+    }
+
+    @Nested
+    public class DumpTest {
+        @TempDir
+        Path directory;
+
+        @Test
+        public void dumpOnUnsupportedTest() throws Exception {
+            Path file = directory.resolve("halt.trace");
+            trace.setDumpPath(file);
+            // V0 = 1, V1 = 2, then a word nothing decodes
+            testChip.getMemory().loadROM(new byte[] {0x60, 0x01, 0x61, 0x02, (byte) 0xFF, (byte) 0xFF});
+
+            assertTrue(testChip.runUncapped(100).isHalted());
+            assertTrue(Files.exists(file));
+
+            List<String> lines = TraceDump.render(file);
+            assertEquals(3, lines.size());
+            assertTrue(lines.get(0).contains("200  6001  LD V0, 01"), lines.get(0));
+            assertTrue(lines.get(1).contains("V1=02"), lines.get(1));
+            assertTrue(lines.get(2).contains("DW FFFF"), lines.get(2));
+        }
+
+        @Test
+        public void dumpOnCrashTest() throws Exception {
+            Path file = directory.resolve("crash.trace");
+            trace.setDumpPath(file);
+            // RET with nothing on the stack
+            testChip.getMemory().loadROM(new byte[] {0x60, 0x01, 0x00, (byte) 0xEE});
+
+            assertThrows(RuntimeException.class, () -> testChip.runUncapped(100));
+
+            List<String> lines = TraceDump.render(file);
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).contains("LD V0, 01"), lines.get(0));
+        }
+
+        @Test
+        public void dumpLastCyclesTest() throws Exception {
+            testChip.getMemory().loadROM(loop);
+            testChip.runUncapped(10);
+
+            Path file = directory.resolve("last.trace");
+            trace.dump(file, 3);
+            List<String> lines = TraceDump.render(file);
+
+            assertEquals(3, lines.size());
+            assertTrue(lines.get(0).trim().startsWith("7 "), lines.get(0));
+            assertTrue(lines.get(0).contains("JP 200"), lines.get(0));
+            assertTrue(lines.get(2).contains("LD I, 300"), lines.get(2));
+        }
+
+        @Test
+        public void notATraceTest() throws Exception {
+            Path file = directory.resolve("garbage.trace");
+            Files.write(file, new byte[32]);
+            assertThrows(java.io.IOException.class, () -> TraceDump.render(file));
+        }
+    }
+
+    @Test
+    public void disassembleTest() {
+        assertEquals("CLS", Disassembler.disassemble((char) 0x00E0));
+        assertEquals("DRW V1, V2, 5", Disassembler.disassemble((char) 0xD125));
+        assertEquals("LD [I], VA", Disassembler.disassemble((char) 0xFA55));
+        assertEquals("DW FFFF", Disassembler.disassemble((char) 0xFFFF));
+    }
+}